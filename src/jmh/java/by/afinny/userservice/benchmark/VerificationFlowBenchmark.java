@@ -0,0 +1,203 @@
+package by.afinny.userservice.benchmark;
+
+import by.afinny.userservice.UserServiceApplication;
+import by.afinny.userservice.controller.VerificationController;
+import by.afinny.userservice.util.VerificationUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the verification endpoints of a running application over HTTP with concurrent clients.
+ * Sample time mode reports the p50/p99/p999 latency; after every iteration the benchmark prints the JDBC
+ * statements per request and the counter increments acknowledged to clients but missing in the database.
+ * {@code phones=1} puts every client on the same phone to look for races, more phones spread the load.
+ * <p>
+ * Postgres is started in a container unless {@code -Dbenchmark.datasource.url} (with {@code .username}
+ * and {@code .password}) points to an existing database; the schema is created by the Flyway migrations.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="VerificationFlowBenchmark -t 32 -p phones=1"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(16)
+public class VerificationFlowBenchmark {
+
+    private static final String POSTGRES_IMAGE = "postgres:latest";
+    private static final String PHONE_PREFIX = "7900";
+    private static final String SENT_CODE = "111111";
+    private static final String WRONG_CODE = "222222";
+    private static final String INVALID_CODE_MESSAGE = "Verification code is invalid!";
+    private static final int NOT_ACCEPTABLE = 406;
+
+    @Param({"1", "256"})
+    private int phones;
+
+    @Param({"false"})
+    private boolean otpTablesUnlogged;
+
+    private PostgreSQLContainer<?> postgres;
+    private ServletWebServerApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private Statistics statistics;
+    private HttpClient httpClient;
+    private URI sendUri;
+    private URI checkUri;
+    private List<String> receivers;
+
+    private final AtomicInteger nextReceiver = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder acknowledgedIncrements = new LongAdder();
+    private long statementsBefore;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        String url = System.getProperty("benchmark.datasource.url");
+        String username = System.getProperty("benchmark.datasource.username");
+        String password = System.getProperty("benchmark.datasource.password");
+        if (url == null) {
+            postgres = new PostgreSQLContainer<>(DockerImageName.parse(POSTGRES_IMAGE));
+            postgres.start();
+            url = postgres.getJdbcUrl();
+            username = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles("integration")
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + username,
+                        "--spring.datasource.password=" + password,
+                        "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "--spring.datasource.hikari.maximum-pool-size=" + Math.max(10, phones),
+                        "--spring.flyway.enabled=true",
+                        "--spring.flyway.placeholders.otp_tables_unlogged=" + otpTablesUnlogged,
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--verification.sweeper.enabled=false",
+                        "--logging.level.root=WARN");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String baseUrl = "http://localhost:" + context.getWebServer().getPort() + VerificationController.VERIFICATION_URL;
+        sendUri = URI.create(baseUrl);
+        checkUri = URI.create(baseUrl + VerificationController.CHECK_VERIFICATION_URL);
+        receivers = new ArrayList<>(phones);
+        for (int i = 0; i < phones; i++) {
+            receivers.add(PHONE_PREFIX + String.format("%07d", i));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetVerifications() {
+        jdbcTemplate.update("TRUNCATE TABLE verification, sms_block_sending");
+        LocalDateTime codeExpiration = LocalDateTime.now().plusHours(1);
+        for (String receiver : receivers) {
+            jdbcTemplate.update("INSERT INTO verification (mobile_phone, verification_code, code_expiration, " +
+                    "wrong_attempts_counter) VALUES (?, ?, ?, 0)", receiver, SENT_CODE, codeExpiration);
+        }
+        requests.reset();
+        acknowledgedIncrements.reset();
+        statementsBefore = statistics.getPrepareStatementCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        long sendingCounters = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(sending_count), 0) FROM sms_block_sending", Long.class);
+        long wrongAttemptCounters = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(wrong_attempts_counter + CASE WHEN user_block_expiration IS NULL " +
+                        "THEN 0 ELSE ? END), 0) FROM verification", Long.class,
+                VerificationUtil.MAX_WRONG_ATTEMPTS_COUNTER);
+        long total = requests.sum();
+        System.out.printf("%n  requests: %d, statements per request: %.2f, lost counter increments: %d%n",
+                total, total == 0 ? 0.0 : (double) statements / total,
+                acknowledgedIncrements.sum() - sendingCounters - wrongAttemptCounters);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    /**
+     * Every granted sending must be counted in sms_block_sending, a blocked receiver gets 406.
+     */
+    @Benchmark
+    public int sendVerificationCode() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(sendUri + "?" +
+                        VerificationController.RECEIVER_PARAM + "=" + nextReceiver()))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        requests.increment();
+        if (response.statusCode() == 200) {
+            acknowledgedIncrements.increment();
+        } else if (response.statusCode() != NOT_ACCEPTABLE) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    /**
+     * Every rejected code must be counted in wrong_attempts_counter until the receiver gets blocked.
+     */
+    @Benchmark
+    public int checkWrongVerificationCode() throws IOException, InterruptedException {
+        String body = "{\"mobilePhone\":\"" + nextReceiver() + "\",\"verificationCode\":\"" + WRONG_CODE + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(checkUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        requests.increment();
+        if (response.body().contains(INVALID_CODE_MESSAGE)) {
+            acknowledgedIncrements.increment();
+        } else if (response.statusCode() != NOT_ACCEPTABLE) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + ": " + response.body());
+        }
+        return response.statusCode();
+    }
+
+    private String nextReceiver() {
+        return receivers.get(Math.floorMod(nextReceiver.getAndIncrement(), phones));
+    }
+}
@@ -0,0 +1,63 @@
+package by.afinny.userservice.affinity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable hash ring placing each member at a number of virtual points, so a member joining or leaving
+ * only moves the keys adjacent to its own points. Hashes depend on member ids only, which makes every
+ * node that sees the same members agree on the owners.
+ */
+public final class ConsistentHashRing<T> {
+
+    private final List<T> members;
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(List<T> members, List<String> memberIds, int virtualNodes) {
+        int size = members.size() * virtualNodes;
+        long[][] entries = new long[size][];
+        for (int member = 0; member < members.size(); member++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                entries[member * virtualNodes + node] = new long[]{hash(memberIds.get(member) + "#" + node), member};
+            }
+        }
+        Arrays.sort(entries, (left, right) -> Long.compare(left[0], right[0]));
+        this.members = List.copyOf(members);
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    public T owner(String key) {
+        if (members.isEmpty()) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return members.get(owners[index == points.length ? 0 : index]);
+    }
+
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ hash >>> 33;
+    }
+}
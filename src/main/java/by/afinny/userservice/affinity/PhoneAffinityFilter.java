@@ -0,0 +1,241 @@
+package by.afinny.userservice.affinity;
+
+import by.afinny.userservice.controller.VerificationController;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sends verification requests to the instance owning the phone, so that instance's in-memory OTP and
+ * throttle state is authoritative. The owner is reported in a response header for gateways able to
+ * route on it directly. Forwarded requests, and requests whose owner is unreachable, are handled locally.
+ * A forwarded request carries an HMAC of the phone and the instance it's forwarded to, keyed with the secret
+ * shared by the instances, so a client setting the forwarded header itself is still sent to the owner.
+ * Bodies are buffered to find the phone, so bodies larger than a verification request are rejected.
+ */
+@Slf4j
+public class PhoneAffinityFilter extends OncePerRequestFilter {
+
+    public static final String OWNER_HEADER = "X-Phone-Affinity-Owner";
+    public static final String FORWARDED_HEADER = "X-Phone-Affinity-Forwarded";
+
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String MOBILE_PHONE_FIELD = "mobilePhone";
+    private static final List<String> FORWARDED_REQUEST_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.ACCEPT, HttpHeaders.AUTHORIZATION);
+    private static final List<String> FORWARDED_RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.RETRY_AFTER);
+
+    private final PhoneAffinityRouter phoneAffinityRouter;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration forwardTimeout;
+    private final SecretKeySpec forwardKey;
+
+    public PhoneAffinityFilter(PhoneAffinityRouter phoneAffinityRouter, ObjectMapper objectMapper,
+                               HttpClient httpClient, Duration forwardTimeout, String forwardSecret) {
+        this.phoneAffinityRouter = phoneAffinityRouter;
+        this.objectMapper = objectMapper;
+        this.httpClient = httpClient;
+        this.forwardTimeout = forwardTimeout;
+        this.forwardKey = new SecretKeySpec(forwardSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        CachedBodyRequest cachedBodyRequest = new CachedBodyRequest(request, body);
+        String mobilePhone = extractMobilePhone(request, body);
+        Optional<ServiceInstance> owner = Optional.ofNullable(mobilePhone)
+                .flatMap(phoneAffinityRouter::findOwner);
+        if (owner.isEmpty()) {
+            filterChain.doFilter(cachedBodyRequest, response);
+            return;
+        }
+        ServiceInstance ownerInstance = owner.get();
+        response.setHeader(OWNER_HEADER, ownerInstance.getInstanceId());
+        if (phoneAffinityRouter.isLocal(ownerInstance) || isForwardedToLocal(request, mobilePhone)
+                || !forward(ownerInstance, mobilePhone, request, body, response)) {
+            filterChain.doFilter(cachedBodyRequest, response);
+        }
+    }
+
+    private String extractMobilePhone(HttpServletRequest request, byte[] body) {
+        String receiver = request.getParameter(VerificationController.RECEIVER_PARAM);
+        if (receiver != null || body.length == 0) {
+            return receiver;
+        }
+        try {
+            JsonNode mobilePhone = objectMapper.readTree(body).get(MOBILE_PHONE_FIELD);
+            return mobilePhone != null && mobilePhone.isTextual() ? mobilePhone.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return whether another instance forwarded the request here, as the instance owning the phone in its view
+     */
+    private boolean isForwardedToLocal(HttpServletRequest request, String mobilePhone) {
+        String signature = request.getHeader(FORWARDED_HEADER);
+        String localInstanceId = phoneAffinityRouter.getLocalInstanceId();
+        if (signature == null || localInstanceId == null) {
+            return false;
+        }
+        boolean valid = MessageDigest.isEqual(sign(mobilePhone, localInstanceId).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+        if (!valid) {
+            log.warn("Verification request with an invalid {} header", FORWARDED_HEADER);
+        }
+        return valid;
+    }
+
+    private String sign(String mobilePhone, String instanceId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(forwardKey);
+            byte[] signature = mac.doFinal((mobilePhone + '\n' + instanceId).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign forwarded verification request", e);
+        }
+    }
+
+    private boolean forward(ServiceInstance owner, String mobilePhone, HttpServletRequest request, byte[] body,
+                            HttpServletResponse response) throws IOException {
+        String query = request.getQueryString();
+        URI uri = owner.getUri().resolve(request.getRequestURI() + (query == null ? "" : "?" + query));
+        HttpRequest.Builder forwardedRequest = HttpRequest.newBuilder(uri)
+                .timeout(forwardTimeout)
+                .method(request.getMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body))
+                .header(FORWARDED_HEADER, sign(mobilePhone, owner.getInstanceId()));
+        for (String header : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                forwardedRequest.header(header, value);
+            }
+        }
+        HttpResponse<byte[]> ownerResponse;
+        try {
+            ownerResponse = httpClient.send(forwardedRequest.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            log.warn("Unable to forward verification request to {}, handling locally. {}",
+                    owner.getInstanceId(), e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        response.setStatus(ownerResponse.statusCode());
+        for (String header : FORWARDED_RESPONSE_HEADERS) {
+            ownerResponse.headers().firstValue(header).ifPresent(value -> response.setHeader(header, value));
+        }
+        response.getOutputStream().write(ownerResponse.body());
+        return true;
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return inputStream.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package by.afinny.userservice.affinity;
+
+import by.afinny.userservice.config.verification.properties.PhoneAffinityProperties;
+import com.netflix.appinfo.LeaseInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.cloud.netflix.eureka.EurekaServiceInstance;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each mobile phone to one registered instance of this service on a consistent hash ring.
+ * An instance joins the ring only after it has been registered for the join delay, so sessions in
+ * progress aren't moved to a node that doesn't know them. Until any instance qualifies, for example
+ * when the whole cluster starts, all registered instances are used.
+ * <p>
+ * The registration time is the one Eureka server keeps in the instance lease, so every node sees the
+ * same ring, also after a restart of its own. Instances without a lease timestamp fall back to the
+ * time this node first saw them.
+ */
+@Slf4j
+public class PhoneAffinityRouter {
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registrationProvider;
+    private final PhoneAffinityProperties properties;
+    private final Clock clock;
+    private final Map<String, Long> firstSeen = new ConcurrentHashMap<>();
+
+    private volatile ConsistentHashRing<ServiceInstance> ring = new ConsistentHashRing<>(List.of(), List.of(), 0);
+    private volatile String localInstanceId;
+
+    public PhoneAffinityRouter(DiscoveryClient discoveryClient, ObjectProvider<Registration> registrationProvider,
+                               PhoneAffinityProperties properties, Clock clock) {
+        this.discoveryClient = discoveryClient;
+        this.registrationProvider = registrationProvider;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the instance owning the phone, or empty if ownership can't be determined
+     */
+    public Optional<ServiceInstance> findOwner(String mobilePhone) {
+        String key = normalize(mobilePhone);
+        return key.isEmpty() ? Optional.empty() : Optional.ofNullable(ring.owner(key));
+    }
+
+    public boolean isLocal(ServiceInstance instance) {
+        return instance.getInstanceId().equals(localInstanceId);
+    }
+
+    public String getLocalInstanceId() {
+        return localInstanceId;
+    }
+
+    @Scheduled(fixedDelayString = "${verification.affinity.refresh-interval-ms:10000}")
+    public void refresh() {
+        Registration registration = registrationProvider.getIfAvailable();
+        if (registration == null) {
+            return;
+        }
+        Map<String, ServiceInstance> instances = new TreeMap<>();
+        instances.put(registration.getInstanceId(), registration);
+        for (ServiceInstance instance : discoveryClient.getInstances(registration.getServiceId())) {
+            instances.put(instance.getInstanceId(), instance);
+        }
+        firstSeen.keySet().retainAll(instances.keySet());
+        long now = clock.millis();
+        long joinDelay = properties.getJoinDelay().toMillis();
+        List<ServiceInstance> members = new ArrayList<>();
+        List<String> memberIds = new ArrayList<>();
+        for (Map.Entry<String, ServiceInstance> instance : instances.entrySet()) {
+            if (now - joinedAt(instance.getKey(), instance.getValue(), now) >= joinDelay) {
+                members.add(instance.getValue());
+                memberIds.add(instance.getKey());
+            }
+        }
+        if (members.isEmpty()) {
+            members.addAll(instances.values());
+            memberIds.addAll(instances.keySet());
+        }
+        localInstanceId = registration.getInstanceId();
+        ring = new ConsistentHashRing<>(members, memberIds, properties.getVirtualNodes());
+        log.debug("Phone affinity ring has {} of {} instances", members.size(), instances.size());
+    }
+
+    private long joinedAt(String instanceId, ServiceInstance instance, long now) {
+        if (instance instanceof EurekaServiceInstance) {
+            LeaseInfo leaseInfo = ((EurekaServiceInstance) instance).getInstanceInfo().getLeaseInfo();
+            if (leaseInfo != null) {
+                long registeredAt = leaseInfo.getServiceUpTimestamp() > 0 ? leaseInfo.getServiceUpTimestamp()
+                        : leaseInfo.getRegistrationTimestamp();
+                if (registeredAt > 0) {
+                    return registeredAt;
+                }
+            }
+        }
+        return firstSeen.computeIfAbsent(instanceId, id -> now);
+    }
+
+    static String normalize(String mobilePhone) {
+        StringBuilder digits = new StringBuilder(mobilePhone.length());
+        for (int i = 0; i < mobilePhone.length(); i++) {
+            char c = mobilePhone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package by.afinny.userservice.config.async.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "spring.threads.virtual")
+public class VirtualThreadsProperties {
+
+    private boolean enabled;
+}
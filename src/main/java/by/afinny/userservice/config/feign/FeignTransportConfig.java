@@ -0,0 +1,68 @@
+package by.afinny.userservice.config.feign;
+
+import by.afinny.userservice.config.feign.properties.FeignTransportProperties;
+import by.afinny.userservice.openfeign.MeteredConnectionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces the connection manager and the client Spring Cloud OpenFeign creates for
+ * {@code feign.httpclient.hc5.enabled}; the load balancer keeps wrapping the client.
+ * Feign method timings come from the {@code feign-micrometer} capability.
+ */
+@Configuration
+@ConditionalOnProperty("feign.httpclient.hc5.enabled")
+@EnableConfigurationProperties(FeignTransportProperties.class)
+public class FeignTransportConfig {
+
+    @Bean
+    public MeteredConnectionManager feignConnectionManager(FeignTransportProperties properties,
+                                                           MeterRegistry meterRegistry) {
+        MeteredConnectionManager connectionManager = new MeteredConnectionManager(
+                TimeValue.ofMilliseconds(properties.getTimeToLive().toMillis()), meterRegistry);
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(
+                TimeValue.ofMilliseconds(properties.getValidateAfterInactivity().toMillis()));
+        for (FeignTransportProperties.Route route : properties.getRoutes()) {
+            connectionManager.setMaxPerRoute(toHttpRoute(route.getUrl()), route.getMaxConnections());
+        }
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient feignHttpClient(MeteredConnectionManager feignConnectionManager,
+                                               FeignTransportProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(feignConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(
+                                properties.getConnectionRequestTimeout().toMillis()))
+                        .setDefaultKeepAlive(properties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getMaxIdleTime().toMillis()))
+                .build();
+    }
+
+    static HttpRoute toHttpRoute(String url) {
+        URI uri = URI.create(url);
+        boolean secure = URIScheme.HTTPS.same(uri.getScheme());
+        int port = uri.getPort() != -1 ? uri.getPort() : secure ? 443 : 80;
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port), null, secure);
+    }
+}
@@ -0,0 +1,39 @@
+package by.afinny.userservice.config.feign.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection pool of the Apache HttpClient 5 transport shared by the Feign clients. Connect and read
+ * timeouts stay with Feign's own {@code feign.client.config} options.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "feign.transport")
+public class FeignTransportProperties {
+
+    private int maxConnections = 200;
+    private int maxConnectionsPerRoute = 20;
+    private List<Route> routes = new ArrayList<>();
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration timeToLive = Duration.ofMinutes(5);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    /**
+     * Pool size of a single target instance, e.g. {@code http://10.0.0.5:8080}.
+     */
+    @Getter
+    @Setter
+    public static class Route {
+
+        private String url;
+        private int maxConnections;
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
@@ -60,6 +61,20 @@ public class KafkaConfig {
         return factory;
     }
 
+    /**
+     * For listeners assigned to partitions without a consumer group: nothing is ever acknowledged, so
+     * no offsets are committed and every start reads from the end of the partitions.
+     */
+    @Bean(name = "broadcastListenerFactory")
+    public ConcurrentKafkaListenerContainerFactory<String, Object> broadcastFactory(
+            ConsumerFactory<String, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+
+        return factory;
+    }
+
     private Map<String, Object> getKafkaConsumerProperties() {
         Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties();
 
@@ -0,0 +1,133 @@
+package by.afinny.userservice.config.product;
+
+import by.afinny.userservice.config.product.properties.ProductResilienceProperties;
+import by.afinny.userservice.config.product.properties.ProductStatusProperties;
+import by.afinny.userservice.openfeign.ProductLookupGuard;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+@EnableConfigurationProperties({ProductStatusProperties.class, ProductResilienceProperties.class})
+public class ProductConfig {
+
+    private static final String CREDIT = "credit";
+    private static final String DEPOSIT = "deposit";
+
+    @Bean
+    public ThreadPoolTaskExecutor productLookupExecutor(ProductStatusProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getLookupPoolSize());
+        executor.setMaxPoolSize(properties.getLookupPoolSize());
+        executor.setQueueCapacity(properties.getLookupQueueCapacity());
+        executor.setThreadNamePrefix("product-lookup-");
+        return executor;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService productLookupTimeoutScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("product-lookup-timeout-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @Bean
+    public CircuitBreakerRegistry productCircuitBreakerRegistry(ProductResilienceProperties properties,
+                                                                MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(circuitBreakerConfig(properties));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry productBulkheadRegistry(ProductResilienceProperties properties,
+                                                    MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public TimeLimiterRegistry productTimeLimiterRegistry(ProductResilienceProperties properties,
+                                                          MeterRegistry meterRegistry) {
+        TimeLimiterRegistry registry = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(properties.getCallTimeout())
+                .build());
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public ProductLookupGuard creditLookupGuard(CircuitBreakerRegistry productCircuitBreakerRegistry,
+                                                BulkheadRegistry productBulkheadRegistry,
+                                                TimeLimiterRegistry productTimeLimiterRegistry,
+                                                ScheduledExecutorService productLookupTimeoutScheduler,
+                                                MeterRegistry meterRegistry) {
+        return createLookupGuard(CREDIT, productCircuitBreakerRegistry, productBulkheadRegistry,
+                productTimeLimiterRegistry, productLookupTimeoutScheduler, meterRegistry);
+    }
+
+    @Bean
+    public ProductLookupGuard depositLookupGuard(CircuitBreakerRegistry productCircuitBreakerRegistry,
+                                                 BulkheadRegistry productBulkheadRegistry,
+                                                 TimeLimiterRegistry productTimeLimiterRegistry,
+                                                 ScheduledExecutorService productLookupTimeoutScheduler,
+                                                 MeterRegistry meterRegistry) {
+        return createLookupGuard(DEPOSIT, productCircuitBreakerRegistry, productBulkheadRegistry,
+                productTimeLimiterRegistry, productLookupTimeoutScheduler, meterRegistry);
+    }
+
+    /**
+     * Lookups cancelled because the other one already found products don't count against the client.
+     */
+    private CircuitBreakerConfig circuitBreakerConfig(ProductResilienceProperties properties) {
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallDurationThreshold())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpenState())
+                .ignoreExceptions(CancellationException.class)
+                .build();
+    }
+
+    private ProductLookupGuard createLookupGuard(String name,
+                                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                                 BulkheadRegistry bulkheadRegistry,
+                                                 TimeLimiterRegistry timeLimiterRegistry,
+                                                 ScheduledExecutorService timeoutScheduler,
+                                                 MeterRegistry meterRegistry) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(name);
+        Counter rejectedCounter = Counter.builder("product.lookup.rejected")
+                .tag("client", name)
+                .tag("reason", "bulkhead_full")
+                .register(meterRegistry);
+        bulkhead.getEventPublisher().onCallRejected(event -> rejectedCounter.increment());
+        return new ProductLookupGuard(name, circuitBreakerRegistry.circuitBreaker(name), bulkhead,
+                timeLimiterRegistry.timeLimiter(name), timeoutScheduler);
+    }
+}
@@ -0,0 +1,26 @@
+package by.afinny.userservice.config.product.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker, bulkhead and time limiter settings applied to each product client separately.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product.resilience")
+public class ProductResilienceProperties {
+
+    private float failureRateThreshold = 50;
+    private float slowCallRateThreshold = 80;
+    private Duration slowCallDurationThreshold = Duration.ofSeconds(1);
+    private int slidingWindowSize = 50;
+    private int minimumNumberOfCalls = 10;
+    private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+    private int permittedCallsInHalfOpenState = 5;
+    private int maxConcurrentCalls = 10;
+    private Duration callTimeout = Duration.ofSeconds(2);
+}
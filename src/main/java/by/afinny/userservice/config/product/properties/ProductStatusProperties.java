@@ -0,0 +1,19 @@
+package by.afinny.userservice.config.product.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "product.status")
+public class ProductStatusProperties {
+
+    private Duration timeout = Duration.ofSeconds(3);
+    private int lookupPoolSize = 20;
+    private int lookupQueueCapacity = 200;
+    private int lastKnownStatuses = 10000;
+    private int reconcileBatchSize = 100;
+}
@@ -0,0 +1,51 @@
+package by.afinny.userservice.config.security;
+
+import by.afinny.userservice.config.security.properties.JwtProperties;
+import by.afinny.userservice.security.JwtAuthenticationInterceptor;
+import by.afinny.userservice.security.JwtTokenProvider;
+import by.afinny.userservice.security.JwtVerifier;
+import by.afinny.userservice.security.TokenRevocationIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Clock;
+
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(JwtProperties.class)
+public class JwtConfig implements WebMvcConfigurer {
+
+    private static final String AUTHENTICATED_URL_PATTERN = "/auth/**";
+
+    private final JwtProperties jwtProperties;
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+
+    @Bean
+    public TokenRevocationIndex tokenRevocationIndex() {
+        return new TokenRevocationIndex();
+    }
+
+    @Bean
+    public JwtTokenProvider jwtTokenProvider() {
+        return new JwtTokenProvider(clock());
+    }
+
+    @Bean
+    public JwtVerifier jwtVerifier() {
+        return new JwtVerifier(clock(), tokenRevocationIndex());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new JwtAuthenticationInterceptor(jwtVerifier(), jwtProperties))
+                .addPathPatterns(AUTHENTICATED_URL_PATTERN);
+    }
+}
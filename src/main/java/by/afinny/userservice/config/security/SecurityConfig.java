@@ -1,15 +1,62 @@
 package by.afinny.userservice.config.security;
 
+import by.afinny.userservice.config.security.properties.FingerprintIndexProperties;
+import by.afinny.userservice.config.security.properties.LoginProperties;
+import by.afinny.userservice.config.security.properties.LoginThrottleProperties;
+import by.afinny.userservice.config.security.properties.PasswordHashingProperties;
+import by.afinny.userservice.config.security.properties.TokenRevocationProperties;
+import by.afinny.userservice.security.BCryptStrengthCalibrator;
+import by.afinny.userservice.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 @Configuration
+@EnableConfigurationProperties({PasswordHashingProperties.class, LoginProperties.class,
+        FingerprintIndexProperties.class, LoginThrottleProperties.class, TokenRevocationProperties.class})
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        int strength = defineStrength(properties);
+        Gauge.builder("password.hashing.strength", () -> strength)
+                .description("BCrypt cost used for new password hashes")
+                .register(meterRegistry);
+        return new BoundedPasswordEncoder(createDelegatingPasswordEncoder(strength), properties, meterRegistry);
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public ThreadPoolTaskExecutor loginExecutor(LoginProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getLookupPoolSize());
+        executor.setMaxPoolSize(properties.getLookupPoolSize());
+        executor.setQueueCapacity(properties.getLookupQueueCapacity());
+        executor.setThreadNamePrefix("login-");
+        return executor;
+    }
+
+    private int defineStrength(PasswordHashingProperties properties) {
+        if (properties.getTargetHashTime() == null) {
+            return properties.getStrength();
+        }
+        return BCryptStrengthCalibrator.calibrate(
+                properties.getTargetHashTime(), properties.getMinStrength(), properties.getMaxStrength());
+    }
+
+    private PasswordEncoder createDelegatingPasswordEncoder(int strength) {
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(
+                BCRYPT_ID, Map.of(BCRYPT_ID, new BCryptPasswordEncoder(strength)));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        return passwordEncoder;
     }
 }
@@ -0,0 +1,14 @@
+package by.afinny.userservice.config.security.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.fingerprint-index")
+public class FingerprintIndexProperties {
+
+    private int initialCapacity = 1024;
+    private int maxClients = 1 << 20;
+}
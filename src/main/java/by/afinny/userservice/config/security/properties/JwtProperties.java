@@ -0,0 +1,13 @@
+package by.afinny.userservice.config.security.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.jwt")
+public class JwtProperties {
+
+    private boolean enforce;
+}
@@ -0,0 +1,17 @@
+package by.afinny.userservice.config.security.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.login")
+public class LoginProperties {
+
+    private Duration timeout = Duration.ofSeconds(5);
+    private int lookupPoolSize = 10;
+    private int lookupQueueCapacity = 500;
+}
@@ -0,0 +1,20 @@
+package by.afinny.userservice.config.security.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.login-throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+    private Duration window = Duration.ofMinutes(15);
+    private int maxFailuresPerLogin = 5;
+    private int maxFailuresPerAddress = 50;
+    private int stripes = 64;
+    private int maxKeysPerStripe = 4096;
+}
@@ -0,0 +1,21 @@
+package by.afinny.userservice.config.security.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.password-hashing")
+public class PasswordHashingProperties {
+
+    private int strength = 12;
+    private Duration targetHashTime;
+    private int minStrength = 12;
+    private int maxStrength = 16;
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 4 * Runtime.getRuntime().availableProcessors();
+    private long retryAfterSeconds = 1;
+}
@@ -0,0 +1,16 @@
+package by.afinny.userservice.config.security.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.token-revocation")
+public class TokenRevocationProperties {
+
+    private long reloadIntervalMs = 30000;
+    private Duration reloadOverlap = Duration.ofMinutes(1);
+}
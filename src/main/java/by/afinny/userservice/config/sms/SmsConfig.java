@@ -0,0 +1,10 @@
+package by.afinny.userservice.config.sms;
+
+import by.afinny.userservice.config.sms.properties.SmsDispatchProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SmsDispatchProperties.class)
+public class SmsConfig {
+}
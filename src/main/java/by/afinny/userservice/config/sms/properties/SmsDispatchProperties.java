@@ -0,0 +1,21 @@
+package by.afinny.userservice.config.sms.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sms.dispatch")
+public class SmsDispatchProperties {
+
+    private int queueCapacity = 10000;
+    private int batchSize = 50;
+    private Duration linger = Duration.ofMillis(20);
+    private int maxConcurrentBatches = 4;
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofMillis(200);
+    private Duration maxBackoff = Duration.ofSeconds(10);
+}
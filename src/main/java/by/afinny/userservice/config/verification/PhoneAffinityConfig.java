@@ -0,0 +1,48 @@
+package by.afinny.userservice.config.verification;
+
+import by.afinny.userservice.affinity.PhoneAffinityFilter;
+import by.afinny.userservice.affinity.PhoneAffinityRouter;
+import by.afinny.userservice.config.verification.properties.PhoneAffinityProperties;
+import by.afinny.userservice.controller.VerificationController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.net.http.HttpClient;
+import java.time.Clock;
+
+@Configuration
+@ConditionalOnProperty(prefix = "verification.affinity", name = "enabled", havingValue = "true")
+public class PhoneAffinityConfig {
+
+    @Bean
+    public PhoneAffinityRouter phoneAffinityRouter(DiscoveryClient discoveryClient,
+                                                   ObjectProvider<Registration> registrationProvider,
+                                                   PhoneAffinityProperties properties, Clock clock) {
+        return new PhoneAffinityRouter(discoveryClient, registrationProvider, properties, clock);
+    }
+
+    @Bean
+    public FilterRegistrationBean<PhoneAffinityFilter> phoneAffinityFilter(PhoneAffinityRouter phoneAffinityRouter,
+                                                                           ObjectMapper objectMapper,
+                                                                           PhoneAffinityProperties properties) {
+        if (!StringUtils.hasText(properties.getForwardSecret())) {
+            throw new IllegalStateException("verification.affinity.forward-secret is required with phone affinity");
+        }
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getForwardTimeout())
+                .build();
+        FilterRegistrationBean<PhoneAffinityFilter> registration = new FilterRegistrationBean<>(
+                new PhoneAffinityFilter(phoneAffinityRouter, objectMapper, httpClient, properties.getForwardTimeout(),
+                        properties.getForwardSecret()));
+        registration.addUrlPatterns(VerificationController.VERIFICATION_URL,
+                VerificationController.VERIFICATION_URL + VerificationController.CHECK_VERIFICATION_URL);
+        return registration;
+    }
+}
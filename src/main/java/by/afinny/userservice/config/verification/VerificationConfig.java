@@ -0,0 +1,14 @@
+package by.afinny.userservice.config.verification;
+
+import by.afinny.userservice.config.verification.properties.OtpStatisticsProperties;
+import by.afinny.userservice.config.verification.properties.PhoneAffinityProperties;
+import by.afinny.userservice.config.verification.properties.VerificationStoreProperties;
+import by.afinny.userservice.config.verification.properties.VerificationSweeperProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({VerificationStoreProperties.class, VerificationSweeperProperties.class,
+        PhoneAffinityProperties.class, OtpStatisticsProperties.class})
+public class VerificationConfig {
+}
@@ -0,0 +1,15 @@
+package by.afinny.userservice.config.verification.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "verification.statistics")
+public class OtpStatisticsProperties {
+
+    private int prefixLength = 5;
+    private int trackedPrefixes = 1024;
+    private int topPrefixes = 20;
+}
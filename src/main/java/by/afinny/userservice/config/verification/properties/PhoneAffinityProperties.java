@@ -0,0 +1,20 @@
+package by.afinny.userservice.config.verification.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "verification.affinity")
+public class PhoneAffinityProperties {
+
+    private boolean enabled = false;
+    private int virtualNodes = 128;
+    private Duration joinDelay = Duration.ofMinutes(5);
+    private long refreshIntervalMs = 10000;
+    private Duration forwardTimeout = Duration.ofSeconds(2);
+    private String forwardSecret;
+}
@@ -0,0 +1,18 @@
+package by.afinny.userservice.config.verification.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "verification.store")
+public class VerificationStoreProperties {
+
+    private String type = "jpa";
+    private Duration retention = Duration.ofHours(1);
+    private Duration tick = Duration.ofSeconds(1);
+    private int wheelSize = 4096;
+}
@@ -0,0 +1,16 @@
+package by.afinny.userservice.config.verification.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "verification.sweeper")
+public class VerificationSweeperProperties {
+
+    private boolean enabled = true;
+    private long intervalMs = 60000;
+    private int batchSize = 500;
+    private int maxBatchesPerRun = 200;
+}
@@ -2,13 +2,23 @@ package by.afinny.userservice.controller;
 
 import by.afinny.userservice.dto.LoginByPinDto;
 import by.afinny.userservice.dto.LoginDto;
+import by.afinny.userservice.dto.JwtDto;
+import by.afinny.userservice.exception.BadCredentialsException;
+import by.afinny.userservice.security.JwtTokenProvider;
+import by.afinny.userservice.security.JwtVerifier;
 import by.afinny.userservice.service.AuthenticationService;
+import by.afinny.userservice.service.TokenRevocationService;
+import by.afinny.userservice.util.constant.JWT;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import javax.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -21,14 +31,20 @@ public class AuthenticationController {
     public static final String AUTHENTICATION_URL = "/login";
     public static final String URL_PASSWORD = "/password";
     public static final String URL_PIN = "/pin";
+    public static final String URL_REFRESH = "/refresh";
+    public static final String URL_LOGOUT = "/logout";
     public static final String MOBILE_PHONE_PARAM = "mobilePhone";
 
     private final AuthenticationService authenticationService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtVerifier jwtVerifier;
+    private final TokenRevocationService tokenRevocationService;
 
     @PostMapping
-    public ResponseEntity<UUID> authenticateUser(@RequestBody LoginDto loginDto) {
-        UUID clientId = authenticationService.getCredentials(loginDto);
-        return ResponseEntity.ok(clientId);
+    public CompletableFuture<ResponseEntity<UUID>> authenticateUser(@RequestBody LoginDto loginDto,
+                                                                    HttpServletRequest request) {
+        return authenticationService.getCredentialsAsync(loginDto, request.getRemoteAddr())
+                .thenApply(this::createAuthenticatedResponse);
     }
 
     @PatchMapping("password")
@@ -39,8 +55,37 @@ public class AuthenticationController {
     }
 
     @PostMapping("pin")
-    public ResponseEntity<UUID> authenticateUserByPin(@RequestBody LoginByPinDto loginByPinDto) {
-        UUID userId = authenticationService.checkFingerprintForLoginById(loginByPinDto);
-        return ResponseEntity.ok(userId);
+    public CompletableFuture<ResponseEntity<UUID>> authenticateUserByPin(@RequestBody LoginByPinDto loginByPinDto) {
+        return authenticationService.checkFingerprintForLoginByIdAsync(loginByPinDto)
+                .thenApply(this::createAuthenticatedResponse);
+    }
+
+    @PostMapping("refresh")
+    public ResponseEntity<UUID> refreshTokens(@RequestHeader(name = "Refresh-Token") String refreshToken) {
+        UUID clientId = jwtVerifier.verifyRefreshToken(refreshToken);
+        if (clientId == null) {
+            throw new BadCredentialsException(Integer.toString(HttpStatus.UNAUTHORIZED.value()),
+                    "Invalid refresh token");
+        }
+        return createAuthenticatedResponse(clientId);
+    }
+
+    @PostMapping("logout")
+    public ResponseEntity<Void> logout(@RequestHeader(name = "Authorization") String authorization) {
+        UUID clientId = jwtVerifier.verifyAuthorizationHeader(authorization);
+        if (clientId == null) {
+            throw new BadCredentialsException(Integer.toString(HttpStatus.UNAUTHORIZED.value()),
+                    "Invalid access token");
+        }
+        tokenRevocationService.revokeTokens(clientId);
+        return ResponseEntity.ok().build();
+    }
+
+    private ResponseEntity<UUID> createAuthenticatedResponse(UUID clientId) {
+        JwtDto tokens = jwtTokenProvider.createTokens(clientId);
+        return ResponseEntity.ok()
+                .header(JWT.HEADER.getValue(), JWT.TOKEN_PREFIX.getValue() + tokens.getAccessToken())
+                .header(JWT.REFRESH_HEADER.getValue(), tokens.getRefreshToken())
+                .body(clientId);
     }
 }
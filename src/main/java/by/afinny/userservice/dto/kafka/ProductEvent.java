@@ -0,0 +1,23 @@
+package by.afinny.userservice.dto.kafka;
+
+import java.util.UUID;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter(AccessLevel.PUBLIC)
+@ToString
+public class ProductEvent {
+
+    private UUID clientId;
+    private UUID productId;
+    private ProductEventType type;
+}
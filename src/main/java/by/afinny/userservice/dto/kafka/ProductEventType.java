@@ -0,0 +1,7 @@
+package by.afinny.userservice.dto.kafka;
+
+public enum ProductEventType {
+
+    OPENED,
+    CLOSED
+}
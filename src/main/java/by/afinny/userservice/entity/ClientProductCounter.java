@@ -0,0 +1,26 @@
+package by.afinny.userservice.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = ClientProductCounter.TABLE_NAME)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter(AccessLevel.PUBLIC)
+@ToString
+public class ClientProductCounter {
+
+    public static final String TABLE_NAME = "client_product_counter";
+
+    @Id
+    @Column(name = "client_id")
+    private UUID clientId;
+
+    @Column(name = "active_products", nullable = false)
+    private int activeProducts;
+}
@@ -0,0 +1,26 @@
+package by.afinny.userservice.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.util.UUID;
+
+@Entity
+@Table(name = TokenRevocation.TABLE_NAME)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter(AccessLevel.PUBLIC)
+@ToString
+public class TokenRevocation {
+
+    public static final String TABLE_NAME = "token_revocation";
+
+    @Id
+    @Column(name = "client_id")
+    private UUID clientId;
+
+    @Column(name = "not_before", nullable = false)
+    private long notBefore;
+}
@@ -8,7 +8,7 @@ import lombok.Setter;
 @RequiredArgsConstructor
 @Getter
 @Setter(AccessLevel.PUBLIC)
-public class BadCredentialsException extends RuntimeException {
+public class BadCredentialsException extends StacklessException {
 
     private final String errorCode;
     private final String errorMessage;
@@ -8,7 +8,7 @@ import lombok.Setter;
 @Getter
 @Setter(AccessLevel.PUBLIC)
 @AllArgsConstructor
-public class BlockedReceiverException extends RuntimeException {
+public class BlockedReceiverException extends StacklessException {
 
     public static final String BLOCK_SECONDS_FIELD = "blockSeconds";
 
@@ -1,6 +1,6 @@
 package by.afinny.userservice.exception;
 
-public class EntityNotFoundException extends RuntimeException {
+public class EntityNotFoundException extends StacklessException {
 
     public EntityNotFoundException(String message) {
         super(message);
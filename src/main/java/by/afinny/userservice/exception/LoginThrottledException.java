@@ -0,0 +1,11 @@
+package by.afinny.userservice.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LoginThrottledException extends StacklessException {
+
+    private final long retryAfterSeconds;
+}
@@ -0,0 +1,10 @@
+package by.afinny.userservice.exception;
+
+public class SmsSendingRejectedException extends StacklessException {
+
+    private static final SmsSendingRejectedException INSTANCE = new SmsSendingRejectedException();
+
+    public static SmsSendingRejectedException getInstance() {
+        return INSTANCE;
+    }
+}
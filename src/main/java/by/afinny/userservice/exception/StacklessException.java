@@ -0,0 +1,16 @@
+package by.afinny.userservice.exception;
+
+/**
+ * Base for business exceptions that end up as an error response. They are expected on every rejected
+ * request, so no stack trace is captured and instances with a fixed message may be shared.
+ */
+public abstract class StacklessException extends RuntimeException {
+
+    protected StacklessException() {
+        super(null, null, false, false);
+    }
+
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+}
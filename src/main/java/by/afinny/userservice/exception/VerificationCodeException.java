@@ -8,7 +8,7 @@ import lombok.Setter;
 @RequiredArgsConstructor
 @Getter
 @Setter(AccessLevel.PUBLIC)
-public class VerificationCodeException extends RuntimeException {
+public class VerificationCodeException extends StacklessException {
 
     private final String errorCode;
     private final String errorMessage;
@@ -1,4 +1,10 @@
 package by.afinny.userservice.exception;
 
-public class WrongCredentialsException extends RuntimeException {
+public class WrongCredentialsException extends StacklessException {
+
+    private static final WrongCredentialsException INSTANCE = new WrongCredentialsException();
+
+    public static WrongCredentialsException getInstance() {
+        return INSTANCE;
+    }
 }
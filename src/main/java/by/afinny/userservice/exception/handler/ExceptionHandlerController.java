@@ -6,7 +6,10 @@ import by.afinny.userservice.exception.BlockedReceiverException;
 import by.afinny.userservice.exception.DocumentsAlreadyExistException;
 import by.afinny.userservice.exception.EntityNotFoundException;
 import by.afinny.userservice.exception.IncorrectParameterException;
+import by.afinny.userservice.exception.LoginThrottledException;
+import by.afinny.userservice.exception.PasswordHashingRejectedException;
 import by.afinny.userservice.exception.RegistrationException;
+import by.afinny.userservice.exception.SmsSendingRejectedException;
 import by.afinny.userservice.exception.VerificationCodeException;
 import by.afinny.userservice.exception.WrongCredentialsException;
 import by.afinny.userservice.exception.dto.AccountExistErrorDto;
@@ -33,6 +36,9 @@ import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -41,48 +47,93 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
 
+    private static final int MAX_CACHED_ERROR_BODIES = 256;
+    private static final ResponseEntity<Void> WRONG_CREDENTIALS_RESPONSE =
+            ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+
+    private final Map<String, Map<String, ErrorDto>> errorDtos = new ConcurrentHashMap<>();
+    private final Map<String, VerificationErrorDto> verificationErrorDtos = new ConcurrentHashMap<>();
+
     @ExceptionHandler(AccountExistException.class)
     public ResponseEntity<AccountExistErrorDto> accountExistExceptionHandler(AccountExistException e) {
-        log.error("Account already exist. " + e.getErrorMessage());
+        log.error("Account already exist. {}", e.getErrorMessage());
         AccountExistErrorDto body = new AccountExistErrorDto(e.getStatus(), e.getErrorCode(), e.getErrorMessage());
         return createResponseEntity(getStatus(e.getErrorCode()), body);
     }
 
     @ExceptionHandler(RegistrationException.class)
     public ResponseEntity<ErrorDto> registrationExceptionHandler(RegistrationException e) {
-        log.error("Registration failure. " + e.getErrorMessage());
-        ErrorDto body = new ErrorDto(e.getErrorCode(), e.getErrorMessage());
+        log.error("Registration failure. {}", e.getErrorMessage());
+        ErrorDto body = getErrorDto(e.getErrorCode(), e.getErrorMessage());
         return createResponseEntity(getStatus(e.getErrorCode()), body);
     }
 
     @ResponseStatus(code = HttpStatus.BAD_REQUEST)
     @ExceptionHandler(VerificationCodeException.class)
     protected ResponseEntity<VerificationErrorDto> verificationCodeExceptionHandler(VerificationCodeException e) {
-        log.error("Verification failure. " + e.getErrorMessage());
-        VerificationErrorDto body = new VerificationErrorDto(e.getErrorMessage());
+        log.debug("Verification failure. {}", e.getErrorMessage());
+        VerificationErrorDto body = verificationErrorDtos.get(e.getErrorMessage());
+        if (body == null) {
+            body = new VerificationErrorDto(e.getErrorMessage());
+            cache(verificationErrorDtos, e.getErrorMessage(), body);
+        }
         return createResponseEntity(getStatus(e.getErrorCode()), body);
     }
 
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ErrorDto> badCredentialsExceptionHandler(BadCredentialsException e) {
-        log.error("Bad credentials. " + e.getErrorMessage());
-        ErrorDto body = new ErrorDto(e.getErrorCode(), e.getErrorMessage());
+        log.debug("Bad credentials. {}", e.getErrorMessage());
+        ErrorDto body = getErrorDto(e.getErrorCode(), e.getErrorMessage());
         return createResponseEntity(getStatus(e.getErrorCode()), body);
     }
 
     @ResponseStatus(code = HttpStatus.NOT_ACCEPTABLE)
     @ExceptionHandler(BlockedReceiverException.class)
     public ResponseEntity<BlockedReceiverErrorDto> blockedReceiverExceptionHandler(BlockedReceiverException e) {
-        log.error("Receiver is blocked. " + e.getMessage());
+        log.debug("Receiver is blocked for {} seconds", e.getBlockSeconds());
         BlockedReceiverErrorDto body = new BlockedReceiverErrorDto(e.getBlockSeconds());
         return createResponseEntity(HttpStatus.NOT_ACCEPTABLE, body);
     }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ErrorDto> passwordHashingRejectedExceptionHandler(PasswordHashingRejectedException e) {
+        log.warn("Password hashing is overloaded. Retry after {} seconds", e.getRetryAfterSeconds());
+        ErrorDto body = getErrorDto(getErrorCode(HttpStatus.TOO_MANY_REQUESTS), "Too many requests, try again later");
+        return createRetryAfterResponse(HttpStatus.TOO_MANY_REQUESTS, e.getRetryAfterSeconds(), body);
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ErrorDto> loginThrottledExceptionHandler(LoginThrottledException e) {
+        log.debug("Too many failed login attempts. Retry after {} seconds", e.getRetryAfterSeconds());
+        ErrorDto body = getErrorDto(getErrorCode(HttpStatus.TOO_MANY_REQUESTS), "Too many failed login attempts");
+        return createRetryAfterResponse(HttpStatus.TOO_MANY_REQUESTS, e.getRetryAfterSeconds(), body);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorDto> rejectedExecutionExceptionHandler(RejectedExecutionException e) {
+        log.warn("Request rejected, executor is saturated. {}", e.getMessage());
+        ErrorDto body = getErrorDto(getErrorCode(HttpStatus.SERVICE_UNAVAILABLE), "Service is busy, try again later");
+        return createRetryAfterResponse(HttpStatus.SERVICE_UNAVAILABLE, 1, body);
+    }
+
+    @ExceptionHandler(SmsSendingRejectedException.class)
+    public ResponseEntity<ErrorDto> smsSendingRejectedExceptionHandler(SmsSendingRejectedException e) {
+        log.warn("Sms sending rejected, dispatch queue is full or no gateway is available");
+        ErrorDto body = getErrorDto(getErrorCode(HttpStatus.SERVICE_UNAVAILABLE), "Unable to send sms, try again later");
+        return createRetryAfterResponse(HttpStatus.SERVICE_UNAVAILABLE, 1, body);
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<ErrorDto> timeoutExceptionHandler(TimeoutException e) {
+        log.warn("Request timed out");
+        ErrorDto body = getErrorDto(getErrorCode(HttpStatus.SERVICE_UNAVAILABLE), "Request timed out");
+        return createResponseEntity(HttpStatus.SERVICE_UNAVAILABLE, body);
+    }
+
     @ResponseStatus(code = HttpStatus.CONFLICT)
     @ExceptionHandler(DocumentsAlreadyExistException.class)
     public ResponseEntity<ErrorDto> documentsAlreadyExistsExceptionHandler(DocumentsAlreadyExistException e) {
-        log.error(String.format("Verification documents have already been uploaded by the client(clientId=%s)",
-                        e.getClientId()));
+        log.error("Verification documents have already been uploaded by the client(clientId={})", e.getClientId());
         ErrorDto body = new ErrorDto(getErrorCode(HttpStatus.CONFLICT), e.getMessage());
         return createResponseEntity(HttpStatus.CONFLICT, body);
     }
@@ -98,21 +149,21 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
     @ResponseStatus(code = HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     public ResponseEntity<String> maxUploadSizeExceededExceptionHandler(MaxUploadSizeExceededException e) {
-        log.error("Max upload size exceeded. " + e.getMessage());
+        log.error("Max upload size exceeded. {}", e.getMessage());
         return createResponseEntity(HttpStatus.BAD_REQUEST, e.getMessage());
     }
 
     @ResponseStatus(code = HttpStatus.BAD_REQUEST)
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<String> test(ConstraintViolationException e) {
-        log.error("Invalid value. " + e.getMessage());
+        log.error("Invalid value. {}", e.getMessage());
         return createResponseEntity(HttpStatus.BAD_REQUEST, "Invalid value");
     }
 
     @ResponseStatus(code = HttpStatus.BAD_REQUEST)
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorDto> illegalArgumentException(IllegalArgumentException e) {
-        log.error("Wrong argument. " + e.getMessage());
+        log.error("Wrong argument. {}", e.getMessage());
         ErrorDto body = new ErrorDto("400", e.getMessage());
         return createResponseEntity(getStatus(body.getErrorCode()), body);
     }
@@ -120,15 +171,15 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
     @ResponseStatus(code = HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Void> exceptionHandler(Exception e) {
-        log.error("Internal server error. " + e.getMessage());
+        log.error("Internal server error. {}", e.getMessage());
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
     }
 
     @ResponseStatus(code = HttpStatus.INTERNAL_SERVER_ERROR)
     @ExceptionHandler(WrongCredentialsException.class)
     public ResponseEntity<Void> wrongCredentialsExceptionHandler(Exception e) {
-        log.error("Wrong credentials. " + e.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        log.debug("Wrong credentials");
+        return WRONG_CREDENTIALS_RESPONSE;
     }
 
     private <T> ResponseEntity<T> createResponseEntity(HttpStatus status, T body) {
@@ -137,12 +188,21 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
                 .body(body);
     }
 
+    private ResponseEntity<ErrorDto> createRetryAfterResponse(HttpStatus status, long retryAfterSeconds,
+                                                              ErrorDto body) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .header("Content-Type", "application/json")
+                .body(body);
+    }
+
     private HttpStatus getStatus(String errorCode) {
         return HttpStatus.valueOf(Integer.parseInt(errorCode));
     }
 
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<?> userProfileException(EntityNotFoundException e) {
+        log.debug("Entity not found. {}", e.getMessage());
         return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
@@ -151,7 +211,7 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
                                                                   HttpHeaders headers,
                                                                   HttpStatus status,
                                                                   WebRequest request) {
-        log.error("Invalid values" + ex);
+        log.error("Invalid values. {}", ex.getMessage());
         Map<String, Object> responseBody = new LinkedHashMap<>();
         List<String> listError = ex.getBindingResult().getFieldErrors().stream()
                 .map(DefaultMessageSourceResolvable::getDefaultMessage)
@@ -167,7 +227,7 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ErrorDto> handleDataIntegrityViolationException(SQLException e) {
-        log.error("Repeating field. " + e.getMessage());
+        log.error("Repeating field. {}", e.getMessage());
         String message = e.getMessage();
         Pattern pattern = Pattern.compile("\"(.*?)=(.*?)\"");
         Matcher matcher = pattern.matcher(message);
@@ -181,6 +241,25 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorDto, HttpStatus.BAD_REQUEST);
     }
 
+    private ErrorDto getErrorDto(String errorCode, String errorMessage) {
+        if (errorCode == null || errorMessage == null) {
+            return new ErrorDto(errorCode, errorMessage);
+        }
+        Map<String, ErrorDto> errorDtosByMessage = errorDtos.get(errorCode);
+        ErrorDto errorDto = errorDtosByMessage == null ? null : errorDtosByMessage.get(errorMessage);
+        if (errorDto == null) {
+            errorDto = new ErrorDto(errorCode, errorMessage);
+            cache(errorDtos.computeIfAbsent(errorCode, code -> new ConcurrentHashMap<>()), errorMessage, errorDto);
+        }
+        return errorDto;
+    }
+
+    private <T> void cache(Map<String, T> cache, String key, T value) {
+        if (key != null && cache.size() < MAX_CACHED_ERROR_BODIES) {
+            cache.putIfAbsent(key, value);
+        }
+    }
+
     private String getErrorCode(HttpStatus httpStatus) {
         return String.valueOf(httpStatus.value());
     }
@@ -0,0 +1,37 @@
+package by.afinny.userservice.kafka;
+
+import by.afinny.userservice.dto.kafka.ProductEvent;
+import by.afinny.userservice.service.ProductStatusService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the products opened and closed in the credit and deposit services. A new group reads the topics
+ * from the earliest retained event, so that the counters start as complete as the topics allow.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "kafka.enabled")
+@Slf4j
+public class ProductTopicListeners {
+
+    private final ProductStatusService productStatusService;
+
+    @KafkaListener(
+        topics = {"${kafka.topics.credit-product.path}", "${kafka.topics.deposit-product.path}"},
+        groupId = "user-service-products",
+        containerFactory = "listenerFactory",
+        properties = {
+            "spring.json.value.default.type=by.afinny.userservice.dto.kafka.ProductEvent",
+            "auto.offset.reset=earliest"})
+    public void onProductEvent(Message<ProductEvent> message) {
+        ProductEvent event = message.getPayload();
+        log.info("Processing product event: clientId = {}, productId = {}, type = {}",
+                event.getClientId(), event.getProductId(), event.getType());
+        productStatusService.applyProductEvent(event);
+    }
+}
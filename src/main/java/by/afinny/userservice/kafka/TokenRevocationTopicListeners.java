@@ -0,0 +1,50 @@
+package by.afinny.userservice.kafka;
+
+import by.afinny.userservice.dto.kafka.TokenRevocationEvent;
+import by.afinny.userservice.service.TokenRevocationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Replicates token revocations between instances. Every instance is assigned the configured partitions
+ * without a consumer group, so each of them receives all revocations and no group is left behind on
+ * restart; the periodic reload from the database covers anything published while an instance was down.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "kafka.enabled")
+@Slf4j
+public class TokenRevocationTopicListeners {
+
+    private final TokenRevocationService tokenRevocationService;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${kafka.topics.token-revocation.path}")
+    private String topic;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenRevocation(TokenRevocationEvent event) {
+        log.info("Publishing token revocation: clientId = {}", event.getClientId());
+        kafkaTemplate.send(topic, event.getClientId().toString(), event);
+    }
+
+    @KafkaListener(
+        topicPartitions = @TopicPartition(
+            topic = "${kafka.topics.token-revocation.path}",
+            partitions = "${kafka.topics.token-revocation.partitions:0}"),
+        containerFactory = "broadcastListenerFactory",
+        properties = "spring.json.value.default.type=by.afinny.userservice.dto.kafka.TokenRevocationEvent")
+    public void onTokenRevocationEvent(Message<TokenRevocationEvent> message) {
+        TokenRevocationEvent event = message.getPayload();
+        log.info("Processing token revocation: clientId = {}", event.getClientId());
+        tokenRevocationService.applyRevocation(event);
+    }
+}
@@ -0,0 +1,109 @@
+package by.afinny.userservice.openfeign;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.RouteInfo;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pools the connections of the Feign clients and records per route how long a request waited to lease
+ * a connection and how long opening a new one took, the TLS handshake included. Connections are reused
+ * last in first out, so the ones left idle in quiet periods are the first to be evicted.
+ */
+public class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private static final String METRIC_PREFIX = "feign.pool";
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    public MeteredConnectionManager(TimeValue timeToLive, MeterRegistry meterRegistry) {
+        super(RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register(URIScheme.HTTP.id, PlainConnectionSocketFactory.getSocketFactory())
+                        .register(URIScheme.HTTPS.id, SSLConnectionSocketFactory.getSocketFactory())
+                        .build(),
+                PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, timeToLive);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(METRIC_PREFIX + ".connections", this, manager -> manager.getTotalStats().getLeased())
+                .tag("state", "leased")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".connections", this, manager -> manager.getTotalStats().getAvailable())
+                .tag("state", "available")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pending", this, manager -> manager.getTotalStats().getPending())
+                .description("Requests waiting for a connection")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".max", this, PoolingHttpClientConnectionManager::getMaxTotal)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest leaseRequest = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                long started = System.nanoTime();
+                String outcome = "failed";
+                try {
+                    ConnectionEndpoint endpoint = leaseRequest.get(timeout);
+                    outcome = "leased";
+                    return endpoint;
+                } catch (TimeoutException e) {
+                    outcome = "timeout";
+                    throw e;
+                } finally {
+                    record("lease", route, outcome, started);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return leaseRequest.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context)
+            throws IOException {
+        long started = System.nanoTime();
+        String outcome = "failed";
+        try {
+            super.connect(endpoint, connectTimeout, context);
+            outcome = "connected";
+        } finally {
+            record("connect", HttpClientContext.adapt(context).getHttpRoute(), outcome, started);
+        }
+    }
+
+    private void record(String name, RouteInfo route, String outcome, long started) {
+        Timer.builder(METRIC_PREFIX + "." + name)
+                .tag("route", route == null ? UNKNOWN_ROUTE : route.getTargetHost().toHostString())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,27 @@
+package by.afinny.userservice.openfeign;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.codec.Decoder;
+import feign.optionals.OptionalDecoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration of the product clients. Not a {@code @Configuration}, so that it only applies to the
+ * clients naming it.
+ */
+public class ProductClientConfiguration {
+
+    @Bean
+    public Decoder productPresenceDecoder(ObjectMapper objectMapper,
+                                          ObjectFactory<HttpMessageConverters> messageConverters,
+                                          ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        return new ProductPresenceDecoder(objectMapper.getFactory(),
+                new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(messageConverters, customizers))));
+    }
+}
@@ -0,0 +1,38 @@
+package by.afinny.userservice.openfeign;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Guards the calls of one product client: a semaphore bulkhead rejects calls beyond the concurrency
+ * limit, an open circuit breaker rejects them while the client is failing or slow, and the time limiter
+ * fails a call that takes too long, which the circuit breaker records as a failure. A timed out call is
+ * failed by completing the future it returned with a {@link java.util.concurrent.TimeoutException}; the work
+ * behind that future is cancelled by the caller then, the bulkhead permit is released already.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductLookupGuard {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+    private final ScheduledExecutorService timeoutScheduler;
+
+    public <T> CompletableFuture<T> execute(Supplier<CompletionStage<T>> call) {
+        Supplier<CompletionStage<T>> timeLimited = () -> timeLimiter.executeCompletionStage(timeoutScheduler, call);
+        return Bulkhead.decorateCompletionStage(bulkhead,
+                        CircuitBreaker.decorateCompletionStage(circuitBreaker, timeLimited))
+                .get()
+                .toCompletableFuture();
+    }
+}
@@ -0,0 +1,46 @@
+package by.afinny.userservice.openfeign;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Decodes a {@code boolean} result from a JSON array of products by reading tokens up to the first element,
+ * no product gets bound whatever the size of the array. The rest of the body is drained unparsed when the
+ * response is closed, which keeps the connection reusable. A response without a body counts as having
+ * products. Other result types are left to the delegate.
+ */
+@RequiredArgsConstructor
+public class ProductPresenceDecoder implements Decoder {
+
+    private final JsonFactory jsonFactory;
+    private final Decoder delegate;
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (type != boolean.class && type != Boolean.class) {
+            return delegate.decode(response, type);
+        }
+        if (response.body() == null) {
+            return true;
+        }
+        try (JsonParser parser = jsonFactory.createParser(response.body().asInputStream())) {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return true;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new DecodeException(response.status(),
+                        "Expected an array of products but got " + token, response.request());
+            }
+            return parser.nextToken() != JsonToken.END_ARRAY;
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package by.afinny.userservice.openfeign.credit;
 
 import by.afinny.userservice.dto.credit.CreditDto;
+import by.afinny.userservice.openfeign.ProductClientConfiguration;
+import by.afinny.userservice.openfeign.ProductPresenceDecoder;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
 import java.util.UUID;
 
-@FeignClient(name = "CREDIT/auth/credits")
+@FeignClient(name = "CREDIT/auth/credits", configuration = ProductClientConfiguration.class)
 public interface CreditClient {
 
+    /**
+     * Requests the active credits ({@link CreditDto} list) but only tells whether there are any.
+     *
+     * @see ProductPresenceDecoder
+     */
     @GetMapping
-    ResponseEntity<List<CreditDto>> getActiveCredits(@RequestParam UUID clientId);
+    boolean hasActiveCredits(@RequestParam UUID clientId);
 }
@@ -1,17 +1,22 @@
 package by.afinny.userservice.openfeign.deposit;
 
 import by.afinny.userservice.dto.deposit.AccountDto;
+import by.afinny.userservice.openfeign.ProductClientConfiguration;
+import by.afinny.userservice.openfeign.ProductPresenceDecoder;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
 import java.util.UUID;
 
-@FeignClient(name = "DEPOSIT/accounts")
+@FeignClient(name = "DEPOSIT/accounts", configuration = ProductClientConfiguration.class)
 public interface AccountClient {
 
+    /**
+     * Requests the active accounts ({@link AccountDto} list) but only tells whether there are any.
+     *
+     * @see ProductPresenceDecoder
+     */
     @GetMapping
-    ResponseEntity<List<AccountDto>> getActiveAccounts(@RequestParam UUID clientId);
+    boolean hasActiveAccounts(@RequestParam UUID clientId);
 }
@@ -0,0 +1,54 @@
+package by.afinny.userservice.repository;
+
+import by.afinny.userservice.entity.ClientProductCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Counters of active products per client along with the products they count, so that a redelivered
+ * event doesn't count a product twice. Closed products are kept, marked closed, so that an opening
+ * delivered after the closing isn't counted either.
+ */
+@Repository
+public interface ClientProductCounterRepository extends JpaRepository<ClientProductCounter, UUID> {
+
+    /**
+     * @return 0 if the product is already counted or closed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO client_active_product (product_id, client_id) VALUES (:productId, :clientId) " +
+            "ON CONFLICT (product_id) DO NOTHING",
+            nativeQuery = true)
+    int insertActiveProduct(@Param("clientId") UUID clientId, @Param("productId") UUID productId);
+
+    /**
+     * @return 0 if the product isn't counted
+     */
+    @Modifying
+    @Query(value = "UPDATE client_active_product SET closed = TRUE " +
+            "WHERE product_id = :productId AND client_id = :clientId AND closed = FALSE",
+            nativeQuery = true)
+    int closeActiveProduct(@Param("clientId") UUID clientId, @Param("productId") UUID productId);
+
+    @Modifying
+    @Query(value = "INSERT INTO client_active_product (product_id, client_id, closed) " +
+            "VALUES (:productId, :clientId, TRUE) ON CONFLICT (product_id) DO NOTHING",
+            nativeQuery = true)
+    void insertClosedProduct(@Param("clientId") UUID clientId, @Param("productId") UUID productId);
+
+    @Modifying
+    @Query(value = "INSERT INTO client_product_counter (client_id, active_products) VALUES (:clientId, 1) " +
+            "ON CONFLICT (client_id) DO UPDATE SET active_products = client_product_counter.active_products + 1",
+            nativeQuery = true)
+    void incrementActiveProducts(@Param("clientId") UUID clientId);
+
+    @Modifying
+    @Query(value = "UPDATE client_product_counter SET active_products = active_products - 1 WHERE client_id = :clientId",
+            nativeQuery = true)
+    void decrementActiveProducts(@Param("clientId") UUID clientId);
+}
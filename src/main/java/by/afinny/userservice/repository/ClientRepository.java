@@ -1,9 +1,15 @@
 package by.afinny.userservice.repository;
 
 import by.afinny.userservice.entity.Client;
+import by.afinny.userservice.entity.ClientStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,5 +21,13 @@ public interface ClientRepository extends JpaRepository<Client, UUID> {
   Optional<Client> findClientById(UUID id);
 
   Optional<Client> findClientByPassportDataPassportNumber(String passportNumber);
+
+  @Modifying
+  @Transactional
+  @Query("update Client client set client.clientStatus = :clientStatus " +
+          "where client.id = :id and client.clientStatus <> :clientStatus and client.clientStatus in :replaceable")
+  int updateClientStatus(@Param("id") UUID id,
+                         @Param("clientStatus") ClientStatus clientStatus,
+                         @Param("replaceable") Collection<ClientStatus> replaceable);
 }
 
@@ -2,6 +2,56 @@ package by.afinny.userservice.repository;
 
 import by.afinny.userservice.entity.SmsBlockSending;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 public interface SmsBlockSendingRepository extends JpaRepository<SmsBlockSending, String> {
+
+    /**
+     * Counts a sending and moves the block expiration forward in one statement, unless the receiver is
+     * still blocked. Returns no row only if a concurrent first sending to the same receiver won the insert.
+     * The sending count is the one after the update, or the current one if the receiver is blocked.
+     */
+    @Transactional
+    @Query(value = "WITH reserved AS (" +
+            "INSERT INTO sms_block_sending AS s (mobile_phone, sending_count, sms_block_expiration) " +
+            "VALUES (:mobilePhone, 1, LOCALTIMESTAMP + :baseSeconds * INTERVAL '1 second') " +
+            "ON CONFLICT (mobile_phone) DO UPDATE SET " +
+            "sending_count = s.sending_count + 1, " +
+            "sms_block_expiration = LOCALTIMESTAMP + CASE WHEN s.sending_count < :maxSendAttempts " +
+            "THEN POWER(2, s.sending_count) * :baseSeconds ELSE :blockSeconds END * INTERVAL '1 second' " +
+            "WHERE s.sms_block_expiration IS NULL OR s.sms_block_expiration <= LOCALTIMESTAMP " +
+            "RETURNING s.sending_count, s.sms_block_expiration) " +
+            "SELECT TRUE AS granted, sending_count AS sendingCount, " +
+            "CAST(FLOOR(EXTRACT(EPOCH FROM sms_block_expiration - LOCALTIMESTAMP)) AS BIGINT) + 1 AS remainingSeconds " +
+            "FROM reserved " +
+            "UNION ALL " +
+            "SELECT FALSE, sending_count, CAST(FLOOR(EXTRACT(EPOCH FROM sms_block_expiration - LOCALTIMESTAMP)) AS BIGINT) + 1 " +
+            "FROM sms_block_sending " +
+            "WHERE mobile_phone = :mobilePhone AND NOT EXISTS (SELECT 1 FROM reserved)",
+            nativeQuery = true)
+    Optional<Reservation> reserveSending(@Param("mobilePhone") String mobilePhone,
+                                         @Param("baseSeconds") int baseSeconds,
+                                         @Param("maxSendAttempts") int maxSendAttempts,
+                                         @Param("blockSeconds") int blockSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE sms_block_sending SET sending_count = sending_count - 1, sms_block_expiration = NULL " +
+            "WHERE mobile_phone = :mobilePhone AND sending_count = :sendingCount",
+            nativeQuery = true)
+    int releaseSending(@Param("mobilePhone") String mobilePhone, @Param("sendingCount") int sendingCount);
+
+    interface Reservation {
+
+        Boolean getGranted();
+
+        Integer getSendingCount();
+
+        Long getRemainingSeconds();
+    }
 }
@@ -0,0 +1,30 @@
+package by.afinny.userservice.repository;
+
+import by.afinny.userservice.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, UUID> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO token_revocation (client_id, not_before) VALUES (:clientId, :notBefore) " +
+            "ON CONFLICT (client_id) DO UPDATE SET not_before = GREATEST(token_revocation.not_before, EXCLUDED.not_before)",
+            nativeQuery = true)
+    void upsertNotBefore(@Param("clientId") UUID clientId, @Param("notBefore") long notBefore);
+
+    List<TokenRevocation> findByNotBeforeGreaterThanEqual(long notBefore);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRevocation tokenRevocation where tokenRevocation.notBefore < :notBefore")
+    int deleteExpired(@Param("notBefore") long notBefore);
+}
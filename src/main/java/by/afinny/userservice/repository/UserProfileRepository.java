@@ -1,16 +1,35 @@
 package by.afinny.userservice.repository;
 
 import by.afinny.userservice.entity.UserProfile;
+import by.afinny.userservice.repository.projection.LoginCredentials;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserProfileRepository extends JpaRepository<UserProfile, UUID> {
 
+    String SELECT_LOGIN_CREDENTIALS = "select client.id as clientId, userProfile.id as userProfileId, "
+            + "userProfile.password as password, client.clientStatus as clientStatus "
+            + "from UserProfile userProfile join userProfile.client client ";
+
     Optional<UserProfile> findByClientMobilePhone(String phone);
 
     Optional<UserProfile> findByClientPassportDataPassportNumber(String passportData);
 
     Optional<UserProfile> findByClientId(UUID clientId);
-}
 
+    @Query(SELECT_LOGIN_CREDENTIALS + "where client.mobilePhone = :mobilePhone")
+    Optional<LoginCredentials> findCredentialsByMobilePhone(@Param("mobilePhone") String mobilePhone);
+
+    @Query(SELECT_LOGIN_CREDENTIALS + "where client.passportData.passportNumber = :passportNumber")
+    Optional<LoginCredentials> findCredentialsByPassportNumber(@Param("passportNumber") String passportNumber);
+
+    @Transactional
+    @Modifying
+    @Query("update UserProfile userProfile set userProfile.password = :password where userProfile.id = :id")
+    int updatePassword(@Param("id") UUID id, @Param("password") String password);
+}
@@ -2,7 +2,10 @@ package by.afinny.userservice.repository;
 
 import by.afinny.userservice.entity.Verification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -10,5 +13,45 @@ import java.util.Optional;
 public interface VerificationRepository extends JpaRepository<Verification, String> {
 
     Optional<Verification> findByMobilePhone (String receiver);
+
+    /**
+     * Checks the code and applies its consequences in one statement: increments the wrong attempts on a
+     * mismatch, blocks the phone once they run out, deletes the verification on success. Returns no row
+     * if no code was sent to the phone.
+     */
+    @Transactional
+    @Query(value = "WITH checked AS (" +
+            "SELECT mobile_phone, user_block_expiration, CASE " +
+            "WHEN user_block_expiration > LOCALTIMESTAMP THEN 'BLOCKED' " +
+            "WHEN wrong_attempts_counter + 1 > :maxWrongAttempts THEN 'BLOCKED_NOW' " +
+            "WHEN verification_code IS DISTINCT FROM :verificationCode THEN 'INVALID' " +
+            "WHEN code_expiration < LOCALTIMESTAMP THEN 'EXPIRED' " +
+            "ELSE 'VALID' END AS outcome " +
+            "FROM verification WHERE mobile_phone = :mobilePhone FOR UPDATE), " +
+            "updated AS (" +
+            "UPDATE verification v SET " +
+            "wrong_attempts_counter = CASE WHEN c.outcome = 'BLOCKED_NOW' THEN 0 ELSE v.wrong_attempts_counter + 1 END, " +
+            "user_block_expiration = CASE WHEN c.outcome = 'BLOCKED_NOW' " +
+            "THEN LOCALTIMESTAMP + :blockSeconds * INTERVAL '1 second' ELSE v.user_block_expiration END " +
+            "FROM checked c WHERE v.mobile_phone = c.mobile_phone AND c.outcome IN ('BLOCKED_NOW', 'INVALID') " +
+            "RETURNING v.user_block_expiration), " +
+            "deleted AS (" +
+            "DELETE FROM verification v USING checked c " +
+            "WHERE v.mobile_phone = c.mobile_phone AND c.outcome = 'VALID') " +
+            "SELECT c.outcome AS outcome, CAST(FLOOR(EXTRACT(EPOCH FROM " +
+            "COALESCE(u.user_block_expiration, c.user_block_expiration) - LOCALTIMESTAMP)) AS BIGINT) + 1 AS blockSeconds " +
+            "FROM checked c LEFT JOIN updated u ON TRUE",
+            nativeQuery = true)
+    Optional<CheckResult> checkVerification(@Param("mobilePhone") String mobilePhone,
+                                            @Param("verificationCode") String verificationCode,
+                                            @Param("maxWrongAttempts") int maxWrongAttempts,
+                                            @Param("blockSeconds") int blockSeconds);
+
+    interface CheckResult {
+
+        String getOutcome();
+
+        Long getBlockSeconds();
+    }
 }
 
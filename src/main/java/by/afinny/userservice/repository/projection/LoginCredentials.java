@@ -0,0 +1,16 @@
+package by.afinny.userservice.repository.projection;
+
+import by.afinny.userservice.entity.ClientStatus;
+
+import java.util.UUID;
+
+public interface LoginCredentials {
+
+    UUID getClientId();
+
+    UUID getUserProfileId();
+
+    String getPassword();
+
+    ClientStatus getClientStatus();
+}
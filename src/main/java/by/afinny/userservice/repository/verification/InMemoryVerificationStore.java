@@ -0,0 +1,215 @@
+package by.afinny.userservice.repository.verification;
+
+import by.afinny.userservice.config.verification.properties.VerificationStoreProperties;
+import by.afinny.userservice.entity.SmsBlockSending;
+import by.afinny.userservice.entity.Verification;
+import by.afinny.userservice.statistics.OtpStatistics;
+import by.afinny.userservice.util.VerificationUtil;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps verification state in memory, each entry expiring a retention period after its last code or
+ * block expiration. Expiry is driven by a {@link TimingWheel}; lookups also ignore entries past their
+ * deadline, so results don't depend on the wheel's tick. State is local to the instance.
+ */
+@Component
+@ConditionalOnProperty(prefix = "verification.store", name = "type", havingValue = "memory")
+public class InMemoryVerificationStore implements VerificationStore, DisposableBean {
+
+    private final Clock clock;
+    private final OtpStatistics otpStatistics;
+    private final long retentionMillis;
+    private final Map<String, Entry<Verification>> verifications = new HashMap<>();
+    private final Map<String, Entry<SmsBlockSending>> smsBlockSendings = new HashMap<>();
+    private final TimingWheel<Entry<?>> timingWheel;
+    private final ScheduledExecutorService expirationExecutor;
+
+    public InMemoryVerificationStore(VerificationStoreProperties properties, Clock clock, OtpStatistics otpStatistics) {
+        this.clock = clock;
+        this.otpStatistics = otpStatistics;
+        this.retentionMillis = properties.getRetention().toMillis();
+        long tickMillis = properties.getTick().toMillis();
+        this.timingWheel = new TimingWheel<>(tickMillis, properties.getWheelSize(), clock.millis());
+        this.expirationExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "verification-store-expiration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.expirationExecutor.scheduleWithFixedDelay(this::expire, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized Optional<Verification> findVerification(String mobilePhone) {
+        return Optional.ofNullable(getLive(verifications, mobilePhone)).map(InMemoryVerificationStore::copy);
+    }
+
+    @Override
+    public synchronized Verification saveVerification(Verification verification) {
+        store(copy(verification));
+        return verification;
+    }
+
+    @Override
+    public synchronized void deleteVerification(Verification verification) {
+        Entry<Verification> entry = verifications.remove(verification.getMobilePhone());
+        if (entry != null) {
+            timingWheel.cancel(entry.node);
+        }
+    }
+
+    @Override
+    public synchronized VerificationCheckResult checkVerification(String mobilePhone, String verificationCode) {
+        Verification verification = getLive(verifications, mobilePhone);
+        if (verification == null) {
+            return VerificationCheckResult.NOT_FOUND;
+        }
+        LocalDateTime now = now();
+        LocalDateTime userBlockExpiration = verification.getUserBlockExpiration();
+        if (userBlockExpiration != null && userBlockExpiration.isAfter(now)) {
+            return new VerificationCheckResult(VerificationCheckOutcome.BLOCKED, remainingSeconds(now, userBlockExpiration));
+        }
+        Verification updated = copy(verification);
+        if (verification.getWrongAttemptsCounter() + 1 > VerificationUtil.MAX_WRONG_ATTEMPTS_COUNTER) {
+            updated.setUserBlockExpiration(now.plusSeconds(VerificationUtil.USER_BLOCK_TIME_IN_SECONDS));
+            updated.setWrongAttemptsCounter(0);
+            store(updated);
+            return new VerificationCheckResult(VerificationCheckOutcome.BLOCKED_NOW,
+                    remainingSeconds(now, updated.getUserBlockExpiration()));
+        }
+        if (!verificationCode.equals(verification.getVerificationCode())) {
+            updated.setWrongAttemptsCounter(verification.getWrongAttemptsCounter() + 1);
+            store(updated);
+            return new VerificationCheckResult(VerificationCheckOutcome.INVALID, 0);
+        }
+        if (verification.getCodeExpiration().isBefore(now)) {
+            return new VerificationCheckResult(VerificationCheckOutcome.EXPIRED, 0);
+        }
+        deleteVerification(verification);
+        return new VerificationCheckResult(VerificationCheckOutcome.VALID, 0);
+    }
+
+    @Override
+    public synchronized SmsSendingReservation reserveSmsSending(String mobilePhone) {
+        LocalDateTime now = now();
+        SmsBlockSending current = getLive(smsBlockSendings, mobilePhone);
+        if (current != null && current.getSmsBlockExpiration() != null && current.getSmsBlockExpiration().isAfter(now)) {
+            return new SmsSendingReservation(false, current.getSendingCount(), remainingSeconds(now, current.getSmsBlockExpiration()));
+        }
+        int sendingCount = current == null ? 0 : current.getSendingCount();
+        LocalDateTime smsBlockExpiration = now.plusSeconds(VerificationUtil.calculateSmsBlockSeconds(sendingCount));
+        SmsBlockSending stored = SmsBlockSending.builder()
+                .mobilePhone(mobilePhone)
+                .sendingCount(sendingCount + 1)
+                .smsBlockExpiration(smsBlockExpiration)
+                .build();
+        put(smsBlockSendings, mobilePhone, stored, deadline(smsBlockExpiration, null));
+        return new SmsSendingReservation(true, sendingCount + 1, remainingSeconds(now, smsBlockExpiration));
+    }
+
+    @Override
+    public synchronized void releaseSmsSending(String mobilePhone, SmsSendingReservation reservation) {
+        SmsBlockSending current = getLive(smsBlockSendings, mobilePhone);
+        if (current == null || current.getSendingCount() != reservation.getSendingCount()) {
+            return;
+        }
+        SmsBlockSending released = SmsBlockSending.builder()
+                .mobilePhone(mobilePhone)
+                .sendingCount(current.getSendingCount() - 1)
+                .build();
+        put(smsBlockSendings, mobilePhone, released, deadline(null, null));
+    }
+
+    @Override
+    public void destroy() {
+        expirationExecutor.shutdownNow();
+    }
+
+    public synchronized int size() {
+        return verifications.size() + smsBlockSendings.size();
+    }
+
+    synchronized void expire() {
+        timingWheel.advance(clock.millis(), entry -> {
+            if (entry.owner.remove(entry.key, entry) && entry.value instanceof Verification) {
+                otpStatistics.recordExpiredUnused(1);
+            }
+        });
+    }
+
+    private void store(Verification verification) {
+        long deadline = deadline(verification.getCodeExpiration(), verification.getUserBlockExpiration());
+        put(verifications, verification.getMobilePhone(), verification, deadline);
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock.withZone(ZoneId.systemDefault()));
+    }
+
+    private static long remainingSeconds(LocalDateTime now, LocalDateTime expiration) {
+        return now.until(expiration, ChronoUnit.SECONDS) + 1;
+    }
+
+    private <T> T getLive(Map<String, Entry<T>> entries, String key) {
+        Entry<T> entry = entries.get(key);
+        return entry == null || entry.deadline <= clock.millis() ? null : entry.value;
+    }
+
+    private <T> void put(Map<String, Entry<T>> entries, String key, T value, long deadline) {
+        Entry<T> entry = new Entry<>(entries, key, value, deadline);
+        entry.node = timingWheel.schedule(entry, deadline);
+        Entry<T> previous = entries.put(key, entry);
+        if (previous != null) {
+            timingWheel.cancel(previous.node);
+        }
+    }
+
+    private long deadline(LocalDateTime first, LocalDateTime second) {
+        long latest = clock.millis();
+        for (LocalDateTime expiration : new LocalDateTime[]{first, second}) {
+            if (expiration != null) {
+                latest = Math.max(latest, expiration.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+        return latest + retentionMillis;
+    }
+
+    private static Verification copy(Verification verification) {
+        return Verification.builder()
+                .mobilePhone(verification.getMobilePhone())
+                .verificationCode(verification.getVerificationCode())
+                .codeExpiration(verification.getCodeExpiration())
+                .wrongAttemptsCounter(verification.getWrongAttemptsCounter())
+                .userBlockExpiration(verification.getUserBlockExpiration())
+                .build();
+    }
+
+
+    private static final class Entry<T> {
+
+        private final Map<String, Entry<T>> owner;
+        private final String key;
+        private final T value;
+        private final long deadline;
+        private TimingWheel.Node<Entry<?>> node;
+
+        private Entry(Map<String, Entry<T>> owner, String key, T value, long deadline) {
+            this.owner = owner;
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+}
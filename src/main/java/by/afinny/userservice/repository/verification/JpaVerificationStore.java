@@ -0,0 +1,65 @@
+package by.afinny.userservice.repository.verification;
+
+import by.afinny.userservice.entity.Verification;
+import by.afinny.userservice.repository.SmsBlockSendingRepository;
+import by.afinny.userservice.repository.VerificationRepository;
+import by.afinny.userservice.util.VerificationUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "verification.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class JpaVerificationStore implements VerificationStore {
+
+    private final VerificationRepository verificationRepository;
+    private final SmsBlockSendingRepository smsBlockSendingRepository;
+
+    @Override
+    public Optional<Verification> findVerification(String mobilePhone) {
+        return verificationRepository.findByMobilePhone(mobilePhone);
+    }
+
+    @Override
+    public Verification saveVerification(Verification verification) {
+        return verificationRepository.save(verification);
+    }
+
+    @Override
+    public void deleteVerification(Verification verification) {
+        verificationRepository.delete(verification);
+    }
+
+    @Override
+    public VerificationCheckResult checkVerification(String mobilePhone, String verificationCode) {
+        return verificationRepository.checkVerification(mobilePhone, verificationCode,
+                        VerificationUtil.MAX_WRONG_ATTEMPTS_COUNTER, VerificationUtil.USER_BLOCK_TIME_IN_SECONDS)
+                .map(result -> new VerificationCheckResult(VerificationCheckOutcome.valueOf(result.getOutcome()),
+                        result.getBlockSeconds() == null ? 0 : result.getBlockSeconds()))
+                .orElse(VerificationCheckResult.NOT_FOUND);
+    }
+
+    @Override
+    public SmsSendingReservation reserveSmsSending(String mobilePhone) {
+        return reserveSending(mobilePhone)
+                .or(() -> reserveSending(mobilePhone))
+                .orElseThrow(() -> new IllegalStateException("Unable to reserve sms sending to " + mobilePhone));
+    }
+
+    @Override
+    public void releaseSmsSending(String mobilePhone, SmsSendingReservation reservation) {
+        smsBlockSendingRepository.releaseSending(mobilePhone, reservation.getSendingCount());
+    }
+
+    private Optional<SmsSendingReservation> reserveSending(String mobilePhone) {
+        return smsBlockSendingRepository.reserveSending(mobilePhone,
+                        VerificationUtil.SMS_BLOCK_EXPIRATION_IN_SECONDS,
+                        VerificationUtil.MAX_SEND_ATTEMPTS_COUNTER,
+                        VerificationUtil.BLOCK_TIME_IN_SECONDS)
+                .map(reservation -> new SmsSendingReservation(reservation.getGranted(),
+                        reservation.getSendingCount(), reservation.getRemainingSeconds()));
+    }
+}
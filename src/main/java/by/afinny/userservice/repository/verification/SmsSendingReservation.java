@@ -0,0 +1,13 @@
+package by.afinny.userservice.repository.verification;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SmsSendingReservation {
+
+    private final boolean granted;
+    private final int sendingCount;
+    private final long remainingSeconds;
+}
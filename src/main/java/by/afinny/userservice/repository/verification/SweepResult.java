@@ -0,0 +1,12 @@
+package by.afinny.userservice.repository.verification;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SweepResult {
+
+    private final long verifications;
+    private final long smsBlocks;
+}
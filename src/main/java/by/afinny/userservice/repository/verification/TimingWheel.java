@@ -0,0 +1,80 @@
+package by.afinny.userservice.repository.verification;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: each entry sits in the bucket of its deadline tick, so advancing the wheel only
+ * visits the buckets of elapsed ticks instead of scanning all entries. Not thread-safe.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final Node<K>[] buckets;
+    private final int mask;
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = new Node[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Node<>(null, 0);
+            buckets[i].previous = buckets[i];
+            buckets[i].next = buckets[i];
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public Node<K> schedule(K key, long deadlineMillis) {
+        long deadlineTick = Math.max(deadlineMillis / tickMillis, currentTick);
+        Node<K> node = new Node<>(key, deadlineTick);
+        Node<K> head = buckets[(int) (deadlineTick & mask)];
+        node.previous = head.previous;
+        node.next = head;
+        head.previous.next = node;
+        head.previous = node;
+        return node;
+    }
+
+    public void cancel(Node<K> node) {
+        if (node.next == null) {
+            return;
+        }
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+    }
+
+    public void advance(long nowMillis, Consumer<K> onExpire) {
+        long nowTick = nowMillis / tickMillis;
+        for (currentTick = Math.max(currentTick, nowTick - mask); currentTick <= nowTick; currentTick++) {
+            Node<K> head = buckets[(int) (currentTick & mask)];
+            Node<K> node = head.next;
+            while (node != head) {
+                Node<K> next = node.next;
+                if (node.deadlineTick <= nowTick) {
+                    cancel(node);
+                    onExpire.accept(node.key);
+                }
+                node = next;
+            }
+        }
+        currentTick = nowTick;
+    }
+
+    public static final class Node<K> {
+
+        private final K key;
+        private final long deadlineTick;
+        private Node<K> previous;
+        private Node<K> next;
+
+        private Node(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
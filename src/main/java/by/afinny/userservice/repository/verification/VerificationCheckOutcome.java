@@ -0,0 +1,20 @@
+package by.afinny.userservice.repository.verification;
+
+/**
+ * Result of checking a code, in the order the conditions are evaluated.
+ */
+public enum VerificationCheckOutcome {
+
+    /** No code was sent to the phone. */
+    NOT_FOUND,
+    /** The phone is still blocked, nothing changed. */
+    BLOCKED,
+    /** The wrong attempts ran out; the phone got blocked and its counter reset. */
+    BLOCKED_NOW,
+    /** The code doesn't match; the wrong attempts counter was incremented. */
+    INVALID,
+    /** The code matches but has expired, nothing changed. */
+    EXPIRED,
+    /** The code matches; the verification was deleted. */
+    VALID
+}
@@ -0,0 +1,15 @@
+package by.afinny.userservice.repository.verification;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class VerificationCheckResult {
+
+    public static final VerificationCheckResult NOT_FOUND = new VerificationCheckResult(
+            VerificationCheckOutcome.NOT_FOUND, 0);
+
+    private final VerificationCheckOutcome outcome;
+    private final long blockSeconds;
+}
@@ -0,0 +1,31 @@
+package by.afinny.userservice.repository.verification;
+
+import by.afinny.userservice.entity.Verification;
+
+import java.util.Optional;
+
+public interface VerificationStore {
+
+    Optional<Verification> findVerification(String mobilePhone);
+
+    Verification saveVerification(Verification verification);
+
+    void deleteVerification(Verification verification);
+
+    /**
+     * Atomically checks the code sent to the phone and applies the outcome, see {@link VerificationCheckOutcome}.
+     */
+    VerificationCheckResult checkVerification(String mobilePhone, String verificationCode);
+
+    /**
+     * Atomically counts an SMS sending to the receiver and applies the next block, or reports the
+     * remaining block time without changing anything if the receiver is still blocked.
+     */
+    SmsSendingReservation reserveSmsSending(String mobilePhone);
+
+    /**
+     * Takes back a granted reservation whose SMS wasn't sent, unless another sending to the receiver has
+     * been counted since.
+     */
+    void releaseSmsSending(String mobilePhone, SmsSendingReservation reservation);
+}
@@ -0,0 +1,83 @@
+package by.afinny.userservice.repository.verification;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Deletes OTP state whose latest expiration is older than the retention period. The sweep holds a
+ * session-level advisory lock on its connection, so only one instance of the service sweeps at a time,
+ * and deletes in autocommitted batches located by ctid to keep each statement and its row locks short.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VerificationSweepRepository {
+
+    private static final long SWEEPER_LOCK_KEY = 0x5645524946595357L;
+
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_lock(?)";
+    private static final String UNLOCK = "SELECT pg_advisory_unlock(?)";
+    private static final String DELETE_EXPIRED_VERIFICATIONS = "DELETE FROM verification WHERE ctid = ANY(ARRAY(" +
+            "SELECT ctid FROM verification " +
+            "WHERE GREATEST(code_expiration, user_block_expiration) < LOCALTIMESTAMP - ? * INTERVAL '1 second' " +
+            "LIMIT ?))";
+    private static final String DELETE_EXPIRED_SMS_BLOCKS = "DELETE FROM sms_block_sending WHERE ctid = ANY(ARRAY(" +
+            "SELECT ctid FROM sms_block_sending " +
+            "WHERE sms_block_expiration < LOCALTIMESTAMP - ? * INTERVAL '1 second' " +
+            "LIMIT ?))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return rows purged from each table, or empty if another instance holds the sweeper lock
+     */
+    public Optional<SweepResult> sweepExpired(long retentionSeconds, int batchSize, int maxBatches) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<SweepResult>>) connection -> {
+            if (!advisoryLock(connection, TRY_LOCK)) {
+                return Optional.empty();
+            }
+            try {
+                long verifications = deleteInBatches(connection, DELETE_EXPIRED_VERIFICATIONS,
+                        retentionSeconds, batchSize, maxBatches);
+                long smsBlocks = deleteInBatches(connection, DELETE_EXPIRED_SMS_BLOCKS,
+                        retentionSeconds, batchSize, maxBatches);
+                return Optional.of(new SweepResult(verifications, smsBlocks));
+            } finally {
+                advisoryLock(connection, UNLOCK);
+            }
+        });
+    }
+
+    private boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, SWEEPER_LOCK_KEY);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private long deleteInBatches(Connection connection, String sql, long retentionSeconds,
+                                 int batchSize, int maxBatches) throws SQLException {
+        long deleted = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, retentionSeconds);
+            statement.setInt(2, batchSize);
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int batchDeleted = statement.executeUpdate();
+                deleted += batchDeleted;
+                if (batchDeleted < batchSize) {
+                    break;
+                }
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,58 @@
+package by.afinny.userservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Picks the highest BCrypt cost whose hash time stays within the target on the current hardware.
+ * Only a cheap cost is measured, every next cost doubles the work, and the result never goes below the
+ * minimal cost. The first hashes run unmeasured, so that the JIT compiled code is timed rather than
+ * the interpreter.
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+    private static final int WARMUP_SAMPLES = 10;
+    private static final int SAMPLES = 11;
+    private static final int MEASURED_STRENGTH = 8;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(Duration targetHashTime, int minStrength, int maxStrength) {
+        int strength = Math.min(minStrength, MEASURED_STRENGTH);
+        long estimatedNanos = measure(strength);
+        while (strength < minStrength) {
+            estimatedNanos *= 2;
+            strength++;
+        }
+        long targetNanos = targetHashTime.toNanos();
+        while (strength < maxStrength && estimatedNanos * 2 <= targetNanos) {
+            estimatedNanos *= 2;
+            strength++;
+        }
+        log.info("BCrypt strength calibrated to {} (estimated hash time {} ms, target {} ms)",
+                strength, Duration.ofNanos(estimatedNanos).toMillis(), targetHashTime.toMillis());
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String encoded = encoder.encode(SAMPLE_PASSWORD);
+        for (int i = 0; i < WARMUP_SAMPLES; i++) {
+            encoder.matches(SAMPLE_PASSWORD, encoded);
+        }
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, encoded);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -0,0 +1,153 @@
+package by.afinny.userservice.security;
+
+import by.afinny.userservice.config.security.properties.FingerprintIndexProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-through index of registered fingerprints. Client ids are stored as the two halves of the UUID
+ * in open-addressing primitive arrays, so no boxed key is kept per client. Only known fingerprints are
+ * indexed: a miss is not a rejection and has to be confirmed by the database.
+ */
+@Component
+public class FingerprintIndex {
+
+    private static final String METRIC_PREFIX = "fingerprint.index";
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxClients;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    private long[] mostSigBits;
+    private long[] leastSigBits;
+    private String[][] fingerprints;
+    private int size;
+
+    public FingerprintIndex(FingerprintIndexProperties properties, MeterRegistry meterRegistry) {
+        this.maxClients = properties.getMaxClients();
+        allocate(tableSizeFor(properties.getInitialCapacity()));
+        this.hitCounter = Counter.builder(METRIC_PREFIX + ".lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder(METRIC_PREFIX + ".lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".clients", this, FingerprintIndex::size)
+                .register(meterRegistry);
+    }
+
+    public boolean contains(UUID clientId, String fingerprint) {
+        boolean found = find(clientId.getMostSignificantBits(), clientId.getLeastSignificantBits(), fingerprint);
+        (found ? hitCounter : missCounter).increment();
+        return found;
+    }
+
+    public void put(UUID clientId, String fingerprint) {
+        long msb = clientId.getMostSignificantBits();
+        long lsb = clientId.getLeastSignificantBits();
+        lock.writeLock().lock();
+        try {
+            int slot = indexOf(msb, lsb, mostSigBits, leastSigBits, fingerprints);
+            String[] known = fingerprints[slot];
+            if (known != null) {
+                if (!containsFingerprint(known, fingerprint)) {
+                    String[] extended = Arrays.copyOf(known, known.length + 1);
+                    extended[known.length] = fingerprint;
+                    fingerprints[slot] = extended;
+                }
+                return;
+            }
+            if (size >= maxClients) {
+                return;
+            }
+            mostSigBits[slot] = msb;
+            leastSigBits[slot] = lsb;
+            fingerprints[slot] = new String[]{fingerprint};
+            if (++size * 2 > fingerprints.length && fingerprints.length < MAX_CAPACITY) {
+                resize(fingerprints.length * 2);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean find(long msb, long lsb, String fingerprint) {
+        lock.readLock().lock();
+        try {
+            String[] known = fingerprints[indexOf(msb, lsb, mostSigBits, leastSigBits, fingerprints)];
+            return known != null && containsFingerprint(known, fingerprint);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldMostSigBits = mostSigBits;
+        long[] oldLeastSigBits = leastSigBits;
+        String[][] oldFingerprints = fingerprints;
+        allocate(capacity);
+        for (int i = 0; i < oldFingerprints.length; i++) {
+            if (oldFingerprints[i] != null) {
+                int slot = indexOf(oldMostSigBits[i], oldLeastSigBits[i], mostSigBits, leastSigBits, fingerprints);
+                mostSigBits[slot] = oldMostSigBits[i];
+                leastSigBits[slot] = oldLeastSigBits[i];
+                fingerprints[slot] = oldFingerprints[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mostSigBits = new long[capacity];
+        leastSigBits = new long[capacity];
+        fingerprints = new String[capacity][];
+    }
+
+    private static int indexOf(long msb, long lsb, long[] mostSigBits, long[] leastSigBits, String[][] fingerprints) {
+        int mask = fingerprints.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (fingerprints[slot] != null && (mostSigBits[slot] != msb || leastSigBits[slot] != lsb)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static boolean containsFingerprint(String[] known, String fingerprint) {
+        for (String candidate : known) {
+            if (candidate.equals(fingerprint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        return Math.min(size, MAX_CAPACITY);
+    }
+}
@@ -0,0 +1,68 @@
+package by.afinny.userservice.security;
+
+import by.afinny.userservice.config.security.properties.JwtProperties;
+import by.afinny.userservice.util.constant.JWT;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Establishes the caller of {@code auth/**} endpoints from the access token alone. The verified client id
+ * is exposed as the {@link #CLIENT_ID_ATTRIBUTE} request attribute; with {@code security.jwt.enforce}
+ * requests without a valid token, or asking for another client's data, are refused. The requested client
+ * is taken from the {@code clientId} request parameter and the {@code clientId} path variable.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JwtAuthenticationInterceptor implements HandlerInterceptor {
+
+    public static final String CLIENT_ID_ATTRIBUTE = "authenticatedClientId";
+    private static final String CLIENT_ID_PARAM = "clientId";
+
+    private final JwtVerifier jwtVerifier;
+    private final JwtProperties jwtProperties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        UUID clientId = jwtVerifier.verifyAuthorizationHeader(request.getHeader(JWT.HEADER.getValue()));
+        if (clientId == null) {
+            if (jwtProperties.isEnforce()) {
+                log.debug("Request without valid access token refused");
+                response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                return false;
+            }
+            return true;
+        }
+        request.setAttribute(CLIENT_ID_ATTRIBUTE, clientId);
+        if (jwtProperties.isEnforce() && !(isOwnClientId(request.getParameter(CLIENT_ID_PARAM), clientId)
+                && isOwnClientId(getPathVariable(request, CLIENT_ID_PARAM), clientId))) {
+            log.debug("Request for another client's data refused");
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return false;
+        }
+        return true;
+    }
+
+    private String getPathVariable(HttpServletRequest request, String name) {
+        Object pathVariables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return pathVariables instanceof Map ? (String) ((Map<?, ?>) pathVariables).get(name) : null;
+    }
+
+    private boolean isOwnClientId(String requestedClientId, UUID clientId) {
+        if (requestedClientId == null) {
+            return true;
+        }
+        try {
+            return clientId.equals(UUID.fromString(requestedClientId));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package by.afinny.userservice.security;
+
+import by.afinny.userservice.dto.JwtDto;
+import by.afinny.userservice.util.constant.JWT;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+public class JwtTokenProvider {
+
+    public static final String TOKEN_TYPE_CLAIM = "type";
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    private final SecretKey signingKey;
+    private final Clock clock;
+    private final long accessTokenExpiration;
+    private final long refreshTokenExpiration;
+
+    public JwtTokenProvider(Clock clock) {
+        this.signingKey = Keys.hmacShaKeyFor(JWT.KEY.getValue().getBytes(StandardCharsets.UTF_8));
+        this.clock = clock;
+        this.accessTokenExpiration = Long.parseLong(JWT.ACCESS_TOKEN_EXPIRATION.getValue());
+        this.refreshTokenExpiration = Long.parseLong(JWT.REFRESH_TOKEN_EXPIRATION.getValue());
+    }
+
+    public JwtDto createTokens(UUID clientId) {
+        Instant issuedAt = clock.instant();
+        return JwtDto.builder()
+                .accessToken(createToken(clientId, ACCESS_TOKEN_TYPE, issuedAt, accessTokenExpiration))
+                .refreshToken(createToken(clientId, REFRESH_TOKEN_TYPE, issuedAt, refreshTokenExpiration))
+                .build();
+    }
+
+    private String createToken(UUID clientId, String type, Instant issuedAt, long expiration) {
+        return Jwts.builder()
+                .setSubject(clientId.toString())
+                .claim(TOKEN_TYPE_CLAIM, type)
+                .claim(ISSUED_AT_MILLIS_CLAIM, issuedAt.toEpochMilli())
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(issuedAt.plusMillis(expiration)))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
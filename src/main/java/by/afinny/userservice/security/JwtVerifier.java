@@ -0,0 +1,207 @@
+package by.afinny.userservice.security;
+
+import by.afinny.userservice.util.constant.JWT;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies HS256 tokens issued by {@link JwtTokenProvider} without going through a JWT library: the MAC
+ * and the decode buffers are reused per thread and the payload is read with a streaming parser, so a
+ * verification allocates little more than the resulting {@link UUID}. Any malformed, forged, expired or
+ * revoked token yields {@code null}. Revocation is checked against the millisecond issue time, tokens issued
+ * before it was carried fall back to the whole seconds of {@code iat}.
+ */
+public class JwtVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int[] BASE64_URL = new int[128];
+
+    static {
+        Arrays.fill(BASE64_URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final Clock clock;
+    private final TokenRevocationIndex tokenRevocationIndex;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ThreadLocal<VerificationState> state;
+
+    public JwtVerifier(Clock clock, TokenRevocationIndex tokenRevocationIndex) {
+        this.key = new SecretKeySpec(JWT.KEY.getValue().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.clock = clock;
+        this.tokenRevocationIndex = tokenRevocationIndex;
+        this.state = ThreadLocal.withInitial(() -> new VerificationState(key));
+    }
+
+    public UUID verifyAuthorizationHeader(String header) {
+        String prefix = JWT.TOKEN_PREFIX.getValue();
+        if (header == null || !header.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            return null;
+        }
+        return verifyAccessToken(header, prefix.length());
+    }
+
+    public UUID verifyAccessToken(String token, int offset) {
+        return verify(token, offset, JwtTokenProvider.ACCESS_TOKEN_TYPE);
+    }
+
+    public UUID verifyRefreshToken(String token) {
+        return verify(token, 0, JwtTokenProvider.REFRESH_TOKEN_TYPE);
+    }
+
+    private UUID verify(String token, int offset, String expectedType) {
+        int firstDot = token.indexOf('.', offset);
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= offset || secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            return null;
+        }
+        VerificationState verification = state.get();
+        if (!isSignatureValid(token, offset, secondDot, verification)) {
+            return null;
+        }
+        int payloadLength = decode(token, firstDot + 1, secondDot, verification.payload(secondDot - firstDot));
+        if (payloadLength < 0) {
+            return null;
+        }
+        return readSubject(verification.payload, payloadLength, expectedType);
+    }
+
+    private boolean isSignatureValid(String token, int offset, int secondDot, VerificationState verification) {
+        byte[] signed = verification.signed(secondDot - offset);
+        for (int i = offset; i < secondDot; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                return false;
+            }
+            signed[i - offset] = (byte) c;
+        }
+        verification.mac.update(signed, 0, secondDot - offset);
+        try {
+            verification.mac.doFinal(verification.expectedSignature, 0);
+        } catch (ShortBufferException e) {
+            return false;
+        }
+        int signatureLength = decode(token, secondDot + 1, token.length(), verification.actualSignature);
+        return signatureLength == SIGNATURE_LENGTH
+                && MessageDigest.isEqual(verification.expectedSignature, verification.actualSignature);
+    }
+
+    private UUID readSubject(byte[] payload, int length, String expectedType) {
+        String subject = null;
+        String type = null;
+        long expiration = 0;
+        long issuedAt = Long.MIN_VALUE;
+        long issuedAtMillis = Long.MIN_VALUE;
+        try (JsonParser parser = jsonFactory.createParser(payload, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("sub".equals(field) && value == JsonToken.VALUE_STRING) {
+                    subject = parser.getText();
+                } else if ("exp".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    expiration = parser.getLongValue();
+                } else if ("iat".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    issuedAt = parser.getLongValue();
+                } else if (JwtTokenProvider.ISSUED_AT_MILLIS_CLAIM.equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    issuedAtMillis = parser.getLongValue();
+                } else if (JwtTokenProvider.TOKEN_TYPE_CLAIM.equals(field) && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        if (subject == null || !expectedType.equals(type) || expiration <= clock.millis() / 1000) {
+            return null;
+        }
+        UUID clientId;
+        try {
+            clientId = UUID.fromString(subject);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (issuedAtMillis == Long.MIN_VALUE && issuedAt != Long.MIN_VALUE) {
+            issuedAtMillis = TimeUnit.SECONDS.toMillis(issuedAt);
+        }
+        return tokenRevocationIndex.isRevoked(clientId, issuedAtMillis) ? null : clientId;
+    }
+
+    private static int decode(String source, int from, int to, byte[] target) {
+        int length = 0;
+        int buffer = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64_URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                if (length == target.length) {
+                    return -1;
+                }
+                target[length++] = (byte) (buffer >> bits);
+            }
+        }
+        return length;
+    }
+
+    private static final class VerificationState {
+
+        private final Mac mac;
+        private final byte[] expectedSignature = new byte[SIGNATURE_LENGTH];
+        private final byte[] actualSignature = new byte[SIGNATURE_LENGTH];
+        private byte[] signed = new byte[512];
+        private byte[] payload = new byte[256];
+
+        private VerificationState(SecretKeySpec key) {
+            try {
+                this.mac = Mac.getInstance(ALGORITHM);
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+            }
+        }
+
+        private byte[] signed(int length) {
+            if (signed.length < length) {
+                signed = new byte[length];
+            }
+            return signed;
+        }
+
+        private byte[] payload(int encodedLength) {
+            int length = encodedLength * 3 / 4 + 1;
+            if (payload.length < length) {
+                payload = new byte[length];
+            }
+            return payload;
+        }
+    }
+}
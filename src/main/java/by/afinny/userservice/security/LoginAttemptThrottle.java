@@ -0,0 +1,181 @@
+package by.afinny.userservice.security;
+
+import by.afinny.userservice.config.security.properties.LoginThrottleProperties;
+import by.afinny.userservice.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding-window counter of failed logins per login identifier and per client address. Keys are spread
+ * over independently locked stripes, each holding a bounded LRU map, so the check before password
+ * verification is a hash lookup under an uncontended lock.
+ */
+@Component
+public class LoginAttemptThrottle {
+
+    private static final String LOGIN_PREFIX = "login:";
+    private static final String ADDRESS_PREFIX = "address:";
+
+    private final LoginThrottleProperties properties;
+    private final Clock clock;
+    private final Stripe[] stripes;
+    private final long windowMillis;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public LoginAttemptThrottle(LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    public LoginAttemptThrottle(LoginThrottleProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.windowMillis = properties.getWindow().toMillis();
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(properties.getStripes(), 1))];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(properties.getMaxKeysPerStripe());
+        }
+        this.rejectedCounter = Counter.builder("login.throttle.rejected").register(meterRegistry);
+    }
+
+    public void checkAllowed(String login, String address) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = clock.millis();
+        long retryAfterMillis = Math.max(
+                retryAfterMillis(LOGIN_PREFIX + login, properties.getMaxFailuresPerLogin(), now),
+                address == null ? 0 : retryAfterMillis(ADDRESS_PREFIX + address, properties.getMaxFailuresPerAddress(), now));
+        if (retryAfterMillis > 0) {
+            rejectedCounter.increment();
+            throw new LoginThrottledException(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis)));
+        }
+    }
+
+    public void recordFailure(String login, String address) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = clock.millis();
+        record(LOGIN_PREFIX + login, properties.getMaxFailuresPerLogin(), now);
+        if (address != null) {
+            record(ADDRESS_PREFIX + address, properties.getMaxFailuresPerAddress(), now);
+        }
+    }
+
+    public void recordSuccess(String login) {
+        String key = LOGIN_PREFIX + login;
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.windows.remove(key);
+        }
+    }
+
+    public boolean reset(String key) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.windows.remove(key) != null;
+        }
+    }
+
+    public int trackedKeys() {
+        int trackedKeys = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                trackedKeys += stripe.windows.size();
+            }
+        }
+        return trackedKeys;
+    }
+
+    public List<String> blockedKeys(int limit) {
+        long now = clock.millis();
+        List<String> blockedKeys = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Map.Entry<String, FailureWindow> entry : stripe.windows.entrySet()) {
+                    if (blockedKeys.size() >= limit) {
+                        return blockedKeys;
+                    }
+                    if (entry.getValue().retryAfterMillis(now, windowMillis) > 0) {
+                        blockedKeys.add(entry.getKey());
+                    }
+                }
+            }
+        }
+        return blockedKeys;
+    }
+
+    private long retryAfterMillis(String key, int limit, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            FailureWindow window = stripe.windows.get(key);
+            return window == null || window.failures.length != limit ? 0 : window.retryAfterMillis(now, windowMillis);
+        }
+    }
+
+    private void record(String key, int limit, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            FailureWindow window = stripe.windows.get(key);
+            if (window == null || window.failures.length != limit) {
+                window = new FailureWindow(limit);
+                stripe.windows.put(key, window);
+            }
+            window.add(now);
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static final class Stripe {
+
+        private final Map<String, FailureWindow> windows;
+
+        private Stripe(int maxKeys) {
+            this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FailureWindow> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    private static final class FailureWindow {
+
+        private final long[] failures;
+        private int next;
+        private int count;
+
+        private FailureWindow(int limit) {
+            this.failures = new long[limit];
+        }
+
+        private void add(long timestamp) {
+            failures[next] = timestamp;
+            next = (next + 1) % failures.length;
+            count = Math.min(count + 1, failures.length);
+        }
+
+        private long retryAfterMillis(long now, long windowMillis) {
+            if (count < failures.length) {
+                return 0;
+            }
+            long oldest = failures[next];
+            return Math.max(0, oldest + windowMillis - now);
+        }
+    }
+}
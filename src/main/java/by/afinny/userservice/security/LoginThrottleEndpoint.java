@@ -0,0 +1,52 @@
+package by.afinny.userservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Shows the throttled logins and addresses masked, a key is reset by its full value. Exposed over JMX only,
+ * as the web has no actuator authentication.
+ */
+@Component
+@Endpoint(id = "loginthrottle")
+@RequiredArgsConstructor
+public class LoginThrottleEndpoint {
+
+    private static final int BLOCKED_KEYS_LIMIT = 100;
+    private static final int VISIBLE_CHARS = 2;
+    private static final String LOGIN_KEY_PREFIX = "login:";
+
+    private final LoginAttemptThrottle loginAttemptThrottle;
+
+    @ReadOperation
+    public Map<String, Object> state() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("trackedKeys", loginAttemptThrottle.trackedKeys());
+        state.put("blockedKeys", loginAttemptThrottle.blockedKeys(BLOCKED_KEYS_LIMIT).stream()
+                .map(LoginThrottleEndpoint::mask)
+                .collect(Collectors.toList()));
+        return state;
+    }
+
+    @DeleteOperation
+    public boolean reset(@Selector String key) {
+        return loginAttemptThrottle.reset(key);
+    }
+
+    private static String mask(String key) {
+        int valueStart = (key.startsWith(LOGIN_KEY_PREFIX) ? key.lastIndexOf(':') : key.indexOf(':')) + 1;
+        int length = key.length() - valueStart;
+        int visible = Math.min(VISIBLE_CHARS, length / 4);
+        return key.substring(0, valueStart + visible)
+                + "*".repeat(length - 2 * visible)
+                + key.substring(key.length() - visible);
+    }
+}
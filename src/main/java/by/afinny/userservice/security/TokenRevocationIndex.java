@@ -0,0 +1,122 @@
+package by.afinny.userservice.security;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Per-client "not before" timestamps (epoch milliseconds) of revoked tokens, a token issued strictly before
+ * the timestamp is revoked. Keys are the two halves of the
+ * client UUID in open-addressing primitive arrays; checks take an optimistic read and never block on
+ * the rare writers.
+ */
+public class TokenRevocationIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+
+    public boolean isRevoked(UUID clientId, long issuedAtMillis) {
+        return issuedAtMillis < notBefore(clientId.getMostSignificantBits(), clientId.getLeastSignificantBits());
+    }
+
+    public void revoke(UUID clientId, long notBefore) {
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            current.put(clientId.getMostSignificantBits(), clientId.getLeastSignificantBits(), notBefore);
+            if (current.size * 2 > current.notBefore.length) {
+                table = current.copy(current.notBefore.length * 2, Long.MIN_VALUE);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void removeOlderThan(long notBefore) {
+        long stamp = lock.writeLock();
+        try {
+            table = table.copy(table.notBefore.length, notBefore);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    private long notBefore(long msb, long lsb) {
+        long stamp = lock.tryOptimisticRead();
+        long notBefore = table.get(msb, lsb);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                notBefore = table.get(msb, lsb);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return notBefore;
+    }
+
+    private static final class Table {
+
+        private final long[] mostSigBits;
+        private final long[] leastSigBits;
+        private final long[] notBefore;
+        private int size;
+
+        private Table(int capacity) {
+            this.mostSigBits = new long[capacity];
+            this.leastSigBits = new long[capacity];
+            this.notBefore = new long[capacity];
+        }
+
+        private long get(long msb, long lsb) {
+            int mask = notBefore.length - 1;
+            for (int slot = hash(msb, lsb) & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+                long value = notBefore[slot];
+                if (value == 0) {
+                    return Long.MIN_VALUE;
+                }
+                if (mostSigBits[slot] == msb && leastSigBits[slot] == lsb) {
+                    return value;
+                }
+            }
+            return Long.MIN_VALUE;
+        }
+
+        private void put(long msb, long lsb, long value) {
+            int mask = notBefore.length - 1;
+            int slot = hash(msb, lsb) & mask;
+            while (notBefore[slot] != 0 && (mostSigBits[slot] != msb || leastSigBits[slot] != lsb)) {
+                slot = (slot + 1) & mask;
+            }
+            if (notBefore[slot] == 0) {
+                mostSigBits[slot] = msb;
+                leastSigBits[slot] = lsb;
+                size++;
+            }
+            notBefore[slot] = Math.max(notBefore[slot], value);
+        }
+
+        private Table copy(int capacity, long minNotBefore) {
+            Table copy = new Table(capacity);
+            for (int i = 0; i < notBefore.length; i++) {
+                if (notBefore[i] != 0 && notBefore[i] >= minNotBefore) {
+                    copy.put(mostSigBits[i], leastSigBits[i], notBefore[i]);
+                }
+            }
+            return copy;
+        }
+
+        private static int hash(long msb, long lsb) {
+            long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+    }
+}
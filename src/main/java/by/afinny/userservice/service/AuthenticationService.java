@@ -5,14 +5,19 @@ import by.afinny.userservice.dto.LoginDto;
 import by.afinny.userservice.entity.UserProfile;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface AuthenticationService {
 
     UUID getCredentials(LoginDto dto);
 
+    CompletableFuture<UUID> getCredentialsAsync(LoginDto dto, String clientAddress);
+
     void resetPasswordByMobilePhone(String mobilePhone, String newPassword);
 
     void resetPasswordByUserProfile(UserProfile userProfile, String newPassword);
 
     UUID checkFingerprintForLoginById(LoginByPinDto loginByPinDto);
+
+    CompletableFuture<UUID> checkFingerprintForLoginByIdAsync(LoginByPinDto loginByPinDto);
 }
@@ -0,0 +1,15 @@
+package by.afinny.userservice.service;
+
+import by.afinny.userservice.dto.kafka.ProductEvent;
+import by.afinny.userservice.entity.ClientStatus;
+
+import java.util.UUID;
+
+public interface ProductStatusService {
+
+    ClientStatus defineClientStatus(UUID clientId);
+
+    void applyProductEvent(ProductEvent event);
+
+    void reconcileProvisionalStatuses();
+}
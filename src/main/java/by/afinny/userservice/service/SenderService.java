@@ -1,9 +1,13 @@
 package by.afinny.userservice.service;
 
-import org.springframework.scheduling.annotation.Async;
+import by.afinny.userservice.exception.SmsSendingRejectedException;
 
 public interface SenderService {
 
-    @Async
+    /**
+     * Queues the message for delivery once the current transaction, if any, has committed.
+     *
+     * @throws SmsSendingRejectedException if there is no transaction and the message can't be queued
+     */
     void sendMessageToMobilePhone(String mobilePhone, String message);
 }
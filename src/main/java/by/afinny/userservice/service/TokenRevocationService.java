@@ -0,0 +1,14 @@
+package by.afinny.userservice.service;
+
+import by.afinny.userservice.dto.kafka.TokenRevocationEvent;
+
+import java.util.UUID;
+
+public interface TokenRevocationService {
+
+    void revokeTokens(UUID clientId);
+
+    void applyRevocation(TokenRevocationEvent event);
+
+    void reloadRevocations();
+}
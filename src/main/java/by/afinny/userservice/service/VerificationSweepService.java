@@ -0,0 +1,6 @@
+package by.afinny.userservice.service;
+
+public interface VerificationSweepService {
+
+    void sweepExpired();
+}
@@ -1,54 +1,89 @@
 package by.afinny.userservice.service.impl;
 
+import by.afinny.userservice.config.security.properties.LoginProperties;
 import by.afinny.userservice.dto.LoginByPinDto;
 import by.afinny.userservice.dto.LoginDto;
 import by.afinny.userservice.entity.AuthenticationType;
 import by.afinny.userservice.entity.Fingerprint;
 import by.afinny.userservice.entity.UserProfile;
 import by.afinny.userservice.exception.BadCredentialsException;
+import by.afinny.userservice.exception.LoginThrottledException;
+import by.afinny.userservice.exception.PasswordHashingRejectedException;
 import by.afinny.userservice.exception.WrongCredentialsException;
 import by.afinny.userservice.repository.FingerprintRepository;
 import by.afinny.userservice.repository.UserProfileRepository;
+import by.afinny.userservice.repository.projection.LoginCredentials;
+import by.afinny.userservice.security.BoundedPasswordEncoder;
+import by.afinny.userservice.security.FingerprintIndex;
+import by.afinny.userservice.security.LoginAttemptThrottle;
 import by.afinny.userservice.service.AuthenticationService;
+import by.afinny.userservice.service.TokenRevocationService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class AuthenticationServiceImpl implements AuthenticationService {
 
+    private static final BadCredentialsException INCORRECT_FINGERPRINT = new BadCredentialsException(
+            Integer.toString(HttpStatus.BAD_REQUEST.value()), "Incorrect fingerprint");
+
     private final UserProfileRepository userProfileRepository;
     private final FingerprintRepository fingerprintRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final BoundedPasswordEncoder passwordEncoder;
+    @Qualifier("loginExecutor")
+    private final Executor loginExecutor;
+    private final LoginProperties loginProperties;
+    private final FingerprintIndex fingerprintIndex;
+    private final LoginAttemptThrottle loginAttemptThrottle;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     public UUID getCredentials(LoginDto dto) {
         log.info("getCredentials() invoked");
-        String login = dto.getLogin();
-        String password = dto.getPassword();
-        AuthenticationType authenticationType = dto.getType();
-        UserProfile userProfile;
-
-        if (isMobilePhone(authenticationType)) {
-            log.debug("login identified as mobile phone");
-            login = getMobilePhone(login);
-            userProfile = getVerifiedUserByMobilePhone(login);
-        } else {
-            log.debug("Login identified as passport number");
-            userProfile = getVerifiedUserByPassportNumber(login);
+        String loginKey = getLoginKey(dto);
+        loginAttemptThrottle.checkAllowed(loginKey, null);
+        try {
+            LoginCredentials credentials = getVerifiedCredentialsByLogin(dto);
+            ensurePasswordEquals(isPasswordEquals(dto.getPassword(), credentials.getPassword()));
+            upgradePasswordEncoding(credentials, dto.getPassword());
+            loginAttemptThrottle.recordSuccess(loginKey);
+            return credentials.getClientId();
+        } catch (WrongCredentialsException e) {
+            loginAttemptThrottle.recordFailure(loginKey, null);
+            throw e;
         }
+    }
 
-        if (!isPasswordEquals(password, userProfile.getPassword())) {
-            log.debug("Password aren't equals");
-            throw new WrongCredentialsException();
+    @Override
+    public CompletableFuture<UUID> getCredentialsAsync(LoginDto dto, String clientAddress) {
+        log.info("getCredentialsAsync() invoked");
+        String loginKey = getLoginKey(dto);
+        try {
+            loginAttemptThrottle.checkAllowed(loginKey, clientAddress);
+        } catch (LoginThrottledException e) {
+            log.debug("Login attempt throttled");
+            return CompletableFuture.failedFuture(e);
         }
-        return userProfile.getClient().getId();
+        return CompletableFuture.supplyAsync(() -> getVerifiedCredentialsByLogin(dto), loginExecutor)
+                .thenCompose(credentials -> passwordEncoder.matchesAsync(dto.getPassword(), credentials.getPassword())
+                        .thenApply(matches -> {
+                            ensurePasswordEquals(matches);
+                            upgradePasswordEncoding(credentials, dto.getPassword());
+                            return credentials.getClientId();
+                        }))
+                .whenComplete((clientId, e) -> recordLoginAttempt(loginKey, clientAddress, e))
+                .orTimeout(loginProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
     }
 
     @Override
@@ -66,23 +101,88 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
         userProfile.setPassword(newPasswordEncoded);
         userProfileRepository.save(userProfile);
+        if (userProfile.getClient() != null) {
+            tokenRevocationService.revokeTokens(userProfile.getClient().getId());
+        }
     }
 
     @Override
     public UUID checkFingerprintForLoginById(LoginByPinDto loginByPinDto) {
         log.info("getCredentialsByPin() invoked");
-        Fingerprint fingerprint = getFingerprintByClientId(loginByPinDto.getClientId(), loginByPinDto.getFingerprint());
+        UUID clientId = loginByPinDto.getClientId();
+        if (clientId != null && fingerprintIndex.contains(clientId, loginByPinDto.getFingerprint())) {
+            return clientId;
+        }
+        Fingerprint fingerprint = getFingerprintByClientId(clientId, loginByPinDto.getFingerprint());
+        fingerprintIndex.put(fingerprint.getClient().getId(), fingerprint.getFingerprint());
         return fingerprint.getClient().getId();
     }
 
-    private UserProfile getVerifiedUserByMobilePhone(String mobilePhone) {
-        return userProfileRepository.findByClientMobilePhone(mobilePhone)
-                .orElseThrow(WrongCredentialsException::new);
+    @Override
+    public CompletableFuture<UUID> checkFingerprintForLoginByIdAsync(LoginByPinDto loginByPinDto) {
+        log.info("getCredentialsByPinAsync() invoked");
+        return CompletableFuture.supplyAsync(() -> checkFingerprintForLoginById(loginByPinDto), loginExecutor)
+                .orTimeout(loginProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private LoginCredentials getVerifiedCredentialsByLogin(LoginDto dto) {
+        String login = dto.getLogin();
+        if (isMobilePhone(dto.getType())) {
+            log.debug("login identified as mobile phone");
+            return userProfileRepository.findCredentialsByMobilePhone(getMobilePhone(login))
+                    .orElseThrow(WrongCredentialsException::getInstance);
+        }
+        log.debug("Login identified as passport number");
+        return userProfileRepository.findCredentialsByPassportNumber(login)
+                .orElseThrow(WrongCredentialsException::getInstance);
     }
 
-    private UserProfile getVerifiedUserByPassportNumber(String passportNumber) {
-        return userProfileRepository.findByClientPassportDataPassportNumber(passportNumber)
-                .orElseThrow(WrongCredentialsException::new);
+    private void recordLoginAttempt(String loginKey, String clientAddress, Throwable e) {
+        if (e == null) {
+            loginAttemptThrottle.recordSuccess(loginKey);
+            return;
+        }
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        if (cause instanceof WrongCredentialsException) {
+            loginAttemptThrottle.recordFailure(loginKey, clientAddress);
+        }
+    }
+
+    private String getLoginKey(LoginDto dto) {
+        return isMobilePhone(dto.getType())
+                ? dto.getType() + ":" + getMobilePhone(dto.getLogin())
+                : dto.getType() + ":" + dto.getLogin();
+    }
+
+    private void ensurePasswordEquals(boolean passwordEquals) {
+        if (!passwordEquals) {
+            log.debug("Password aren't equals");
+            throw WrongCredentialsException.getInstance();
+        }
+    }
+
+    private void upgradePasswordEncoding(LoginCredentials credentials, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(credentials.getPassword())) {
+            return;
+        }
+        log.debug("Stored password encoding is outdated, rehashing");
+        try {
+            passwordEncoder.encodeAsync(rawPassword)
+                    .thenAcceptAsync(encodedPassword ->
+                            userProfileRepository.updatePassword(credentials.getUserProfileId(), encodedPassword),
+                            loginExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Password rehash failed", e);
+                        return null;
+                    });
+        } catch (PasswordHashingRejectedException e) {
+            log.debug("Password hashing is overloaded, rehash is postponed to the next login");
+        }
+    }
+
+    private UserProfile getVerifiedUserByMobilePhone(String mobilePhone) {
+        return userProfileRepository.findByClientMobilePhone(mobilePhone)
+                .orElseThrow(WrongCredentialsException::getInstance);
     }
 
     private boolean isPasswordEquals(String password, String storedPassword) {
@@ -103,8 +203,6 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     private Fingerprint getFingerprintByClientId(UUID clientId, String fingerprint) {
         return fingerprintRepository.findByClientIdAndFingerprint(clientId, fingerprint)
-                .orElseThrow(() -> new BadCredentialsException(
-                        Integer.toString(HttpStatus.BAD_REQUEST.value()),
-                        "Incorrect fingerprint"));
+                .orElseThrow(() -> INCORRECT_FINGERPRINT);
     }
 }
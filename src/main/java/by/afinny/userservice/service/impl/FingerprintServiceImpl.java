@@ -4,11 +4,14 @@ import by.afinny.userservice.dto.FingerprintDto;
 import by.afinny.userservice.entity.Fingerprint;
 import by.afinny.userservice.mapper.FingerprintMapper;
 import by.afinny.userservice.repository.FingerprintRepository;
+import by.afinny.userservice.security.FingerprintIndex;
 import by.afinny.userservice.service.FingerprintService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -16,6 +19,7 @@ public class FingerprintServiceImpl implements FingerprintService {
 
     private final FingerprintRepository fingerprintRepository;
     private final FingerprintMapper fingerprintMapper;
+    private final FingerprintIndex fingerprintIndex;
 
     @Override
     public void createFingerprint(FingerprintDto fingerprintDto) {
@@ -24,10 +28,17 @@ public class FingerprintServiceImpl implements FingerprintService {
             Fingerprint fingerprint = fingerprintMapper.toFingerprint(fingerprintDto);
             fingerprintRepository.save(fingerprint);
         }
+        if (fingerprintDto.getClientId() != null) {
+            fingerprintIndex.put(fingerprintDto.getClientId(), fingerprintDto.getFingerprint());
+        }
     }
 
     private boolean verifyFingerprint(FingerprintDto fingerprintDto) {
-        return fingerprintRepository.findByClientIdAndFingerprint(fingerprintDto.getClientId(),
+        UUID clientId = fingerprintDto.getClientId();
+        if (clientId != null && fingerprintIndex.contains(clientId, fingerprintDto.getFingerprint())) {
+            return false;
+        }
+        return fingerprintRepository.findByClientIdAndFingerprint(clientId,
                 fingerprintDto.getFingerprint()).isEmpty();
     }
 }
@@ -0,0 +1,328 @@
+package by.afinny.userservice.service.impl;
+
+import by.afinny.userservice.config.product.properties.ProductStatusProperties;
+import by.afinny.userservice.dto.kafka.ProductEvent;
+import by.afinny.userservice.dto.kafka.ProductEventType;
+import by.afinny.userservice.entity.ClientStatus;
+import by.afinny.userservice.openfeign.ProductLookupGuard;
+import by.afinny.userservice.openfeign.credit.CreditClient;
+import by.afinny.userservice.openfeign.deposit.AccountClient;
+import by.afinny.userservice.repository.ClientProductCounterRepository;
+import by.afinny.userservice.repository.ClientRepository;
+import by.afinny.userservice.service.ProductStatusService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Defines the client status from the active products counted from the product events of the client.
+ * Clients without products counted fall back to looking up active credits and accounts concurrently, each through
+ * its client's {@link ProductLookupGuard}. The client is ACTIVE as soon as either lookup finds a product,
+ * the other one is cancelled then; NOT_ACTIVE needs both lookups to come back empty.
+ * If a lookup fails or is rejected and the other finds nothing, the status falls back to the last one
+ * defined for the client, or to a provisional NOT_ACTIVE. Provisional clients are looked up again on a schedule
+ * and their status is corrected once the lookups succeed, which they do as soon as the circuits close again.
+ * A client is only retried from the second run after it became provisional, so that the registration which
+ * defined the status has committed by then.
+ * <p>
+ * Counting starts with the first product opened seen, so products opened before the events were retained
+ * are only seen by the lookups: a counted product makes the client ACTIVE, but no product counted doesn't
+ * make it NOT_ACTIVE. A client whose last counted product is closed is left to the scheduled lookups.
+ */
+@Service
+@Slf4j
+public class ProductStatusServiceImpl implements ProductStatusService {
+
+    private static final String METRIC_PREFIX = "product.status";
+    private static final Set<ClientStatus> PRODUCT_STATUSES = Set.of(ClientStatus.ACTIVE, ClientStatus.NOT_ACTIVE);
+
+    private final ClientProductCounterRepository clientProductCounterRepository;
+    private final ClientRepository clientRepository;
+    private final CreditClient creditClient;
+    private final AccountClient accountClient;
+    private final ProductLookupGuard creditLookupGuard;
+    private final ProductLookupGuard depositLookupGuard;
+    private final ThreadPoolTaskExecutor productLookupExecutor;
+    private final ProductStatusProperties properties;
+    private final Map<UUID, ClientStatus> lastKnownStatuses;
+    private final Map<UUID, Boolean> provisionalClients;
+    private final Counter lastKnownFallbackCounter;
+    private final Counter provisionalFallbackCounter;
+    private final Counter localDefinitionCounter;
+    private final Counter remoteDefinitionCounter;
+    private final Counter reconciledCounter;
+
+    public ProductStatusServiceImpl(ClientProductCounterRepository clientProductCounterRepository,
+                                    ClientRepository clientRepository,
+                                    CreditClient creditClient,
+                                    AccountClient accountClient,
+                                    @Qualifier("creditLookupGuard") ProductLookupGuard creditLookupGuard,
+                                    @Qualifier("depositLookupGuard") ProductLookupGuard depositLookupGuard,
+                                    @Qualifier("productLookupExecutor") ThreadPoolTaskExecutor productLookupExecutor,
+                                    ProductStatusProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.clientProductCounterRepository = clientProductCounterRepository;
+        this.clientRepository = clientRepository;
+        this.creditClient = creditClient;
+        this.accountClient = accountClient;
+        this.creditLookupGuard = creditLookupGuard;
+        this.depositLookupGuard = depositLookupGuard;
+        this.productLookupExecutor = productLookupExecutor;
+        this.properties = properties;
+        int capacity = properties.getLastKnownStatuses();
+        this.lastKnownStatuses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, ClientStatus> eldest) {
+                return size() > capacity;
+            }
+        });
+        this.provisionalClients = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+                return size() > capacity;
+            }
+        });
+        this.lastKnownFallbackCounter = Counter.builder(METRIC_PREFIX + ".fallback")
+                .tag("source", "last_known")
+                .register(meterRegistry);
+        this.provisionalFallbackCounter = Counter.builder(METRIC_PREFIX + ".fallback")
+                .tag("source", "provisional")
+                .description("Clients set NOT_ACTIVE without knowing their products")
+                .register(meterRegistry);
+        this.localDefinitionCounter = Counter.builder(METRIC_PREFIX + ".definitions")
+                .tag("source", "product_events")
+                .register(meterRegistry);
+        this.remoteDefinitionCounter = Counter.builder(METRIC_PREFIX + ".definitions")
+                .tag("source", "lookups")
+                .register(meterRegistry);
+        this.reconciledCounter = Counter.builder(METRIC_PREFIX + ".reconciled")
+                .description("Provisional statuses corrected by looking up the products again")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".provisional", provisionalClients, Map::size)
+                .description("Clients waiting for their products to be looked up again")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientStatus defineClientStatus(UUID clientId) {
+        if (hasCountedProducts(clientId)) {
+            localDefinitionCounter.increment();
+            return ClientStatus.ACTIVE;
+        }
+        remoteDefinitionCounter.increment();
+        return lookUpClientStatus(clientId);
+    }
+
+    @Transactional
+    @Override
+    public void applyProductEvent(ProductEvent event) {
+        UUID clientId = event.getClientId();
+        boolean counted = event.getType() == ProductEventType.OPENED
+                ? countOpenedProduct(clientId, event.getProductId())
+                : countClosedProduct(clientId, event.getProductId());
+        if (!counted) {
+            log.info("Event {} doesn't change the active products of client {}", event, clientId);
+            return;
+        }
+        if (!hasCountedProducts(clientId)) {
+            log.info("Client {} has no counted products left, its status waits for the lookups", clientId);
+            provisionalClients.put(clientId, true);
+            return;
+        }
+        lastKnownStatuses.put(clientId, ClientStatus.ACTIVE);
+        provisionalClients.remove(clientId);
+        if (clientRepository.updateClientStatus(clientId, ClientStatus.ACTIVE, PRODUCT_STATUSES) > 0) {
+            log.info("Client {} is {} now", clientId, ClientStatus.ACTIVE);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${product.status.reconcile-interval-ms:30000}",
+            initialDelayString = "${product.status.reconcile-interval-ms:30000}")
+    public void reconcileProvisionalStatuses() {
+        for (UUID clientId : dueProvisionalClients()) {
+            Optional<ClientStatus> clientStatus = tryLookUpClientStatus(clientId);
+            if (clientStatus.isEmpty()) {
+                log.info("Products still can't be looked up, {} clients stay provisional", provisionalClients.size());
+                return;
+            }
+            provisionalClients.remove(clientId);
+            reconciledCounter.increment();
+            if (clientStatus.get() == ClientStatus.NOT_ACTIVE && hasCountedProducts(clientId)) {
+                continue;
+            }
+            if (clientRepository.updateClientStatus(clientId, clientStatus.get(), PRODUCT_STATUSES) > 0) {
+                log.info("Client {} is {} now", clientId, clientStatus.get());
+            }
+        }
+    }
+
+    private List<UUID> dueProvisionalClients() {
+        List<UUID> due = new ArrayList<>();
+        synchronized (provisionalClients) {
+            for (Map.Entry<UUID, Boolean> entry : provisionalClients.entrySet()) {
+                if (due.size() == properties.getReconcileBatchSize()) {
+                    break;
+                }
+                if (entry.getValue()) {
+                    due.add(entry.getKey());
+                } else {
+                    entry.setValue(true);
+                }
+            }
+        }
+        return due;
+    }
+
+    private boolean countOpenedProduct(UUID clientId, UUID productId) {
+        if (clientProductCounterRepository.insertActiveProduct(clientId, productId) == 0) {
+            return false;
+        }
+        clientProductCounterRepository.incrementActiveProducts(clientId);
+        return true;
+    }
+
+    private boolean countClosedProduct(UUID clientId, UUID productId) {
+        if (clientProductCounterRepository.closeActiveProduct(clientId, productId) == 0) {
+            clientProductCounterRepository.insertClosedProduct(clientId, productId);
+            return false;
+        }
+        clientProductCounterRepository.decrementActiveProducts(clientId);
+        return true;
+    }
+
+    private ClientStatus lookUpClientStatus(UUID clientId) {
+        return tryLookUpClientStatus(clientId).orElseGet(() -> fallbackStatus(clientId));
+    }
+
+    private Optional<ClientStatus> tryLookUpClientStatus(UUID clientId) {
+        List<Lookup> lookups = new ArrayList<>(2);
+        try {
+            CompletableFuture<Boolean> credits = lookup(creditLookupGuard,
+                    () -> creditClient.hasActiveCredits(clientId), lookups);
+            CompletableFuture<Boolean> accounts = lookup(depositLookupGuard,
+                    () -> accountClient.hasActiveAccounts(clientId), lookups);
+            boolean hasProducts = anyHasProducts(credits, accounts)
+                    .get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            ClientStatus clientStatus = hasProducts ? ClientStatus.ACTIVE : ClientStatus.NOT_ACTIVE;
+            lastKnownStatuses.put(clientId, clientStatus);
+            return Optional.of(clientStatus);
+        } catch (TimeoutException e) {
+            log.warn("Products of client {} weren't found out in {}", clientId, properties.getTimeout());
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            log.warn("Unable to look up products of client {}. {}", clientId, e.getCause().toString());
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while looking up products of client " + clientId, e);
+        } finally {
+            lookups.forEach(Lookup::cancel);
+        }
+    }
+
+    private CompletableFuture<Boolean> lookup(ProductLookupGuard guard, BooleanSupplier call, List<Lookup> lookups) {
+        return guard.execute(() -> {
+            Lookup lookup = new Lookup();
+            lookups.add(lookup);
+            lookup.start(productLookupExecutor, call);
+            return lookup.hasProducts;
+        });
+    }
+
+    private ClientStatus fallbackStatus(UUID clientId) {
+        ClientStatus lastKnownStatus = lastKnownStatuses.get(clientId);
+        if (lastKnownStatus != null) {
+            lastKnownFallbackCounter.increment();
+            return lastKnownStatus;
+        }
+        provisionalFallbackCounter.increment();
+        provisionalClients.put(clientId, false);
+        log.warn("Client {} is provisionally {} until its products are known", clientId, ClientStatus.NOT_ACTIVE);
+        return ClientStatus.NOT_ACTIVE;
+    }
+
+    private boolean hasCountedProducts(UUID clientId) {
+        return clientProductCounterRepository.findById(clientId)
+                .map(counter -> counter.getActiveProducts() > 0)
+                .orElse(false);
+    }
+
+    private static CompletableFuture<Boolean> anyHasProducts(CompletableFuture<Boolean> first,
+                                                             CompletableFuture<Boolean> second) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        first.thenAccept(found -> completeIfFound(result, found));
+        second.thenAccept(found -> completeIfFound(result, found));
+        CompletableFuture.allOf(first, second).whenComplete((ignored, e) -> {
+            if (hasFound(first) || hasFound(second)) {
+                result.complete(true);
+            } else if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(false);
+            }
+        });
+        return result;
+    }
+
+    private static void completeIfFound(CompletableFuture<Boolean> result, boolean found) {
+        if (found) {
+            result.complete(true);
+        }
+    }
+
+    private static boolean hasFound(CompletableFuture<Boolean> lookup) {
+        return !lookup.isCompletedExceptionally() && lookup.join();
+    }
+
+    private static final class Lookup {
+
+        private final CompletableFuture<Boolean> hasProducts = new CompletableFuture<>();
+
+        /**
+         * Runs the call, which is interrupted as soon as {@link #hasProducts} is cancelled because the lookup
+         * of the other client found products, or timed out by the time limiter of the guard.
+         */
+        private void start(ThreadPoolTaskExecutor executor, BooleanSupplier call) {
+            Future<?> task = executor.submit(() -> {
+                try {
+                    hasProducts.complete(call.getAsBoolean());
+                } catch (RuntimeException e) {
+                    hasProducts.completeExceptionally(e);
+                }
+            });
+            hasProducts.whenComplete((found, e) -> {
+                if (e instanceof CancellationException || e instanceof TimeoutException) {
+                    task.cancel(true);
+                }
+            });
+        }
+
+        private void cancel() {
+            hasProducts.cancel(true);
+        }
+    }
+}
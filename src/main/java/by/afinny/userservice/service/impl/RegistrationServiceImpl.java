@@ -4,8 +4,6 @@ import by.afinny.userservice.dto.ClientDto;
 import by.afinny.userservice.dto.PassportDto;
 import by.afinny.userservice.dto.RequestClientDto;
 import by.afinny.userservice.dto.RequestNonClientDto;
-import by.afinny.userservice.dto.credit.CreditDto;
-import by.afinny.userservice.dto.deposit.AccountDto;
 import by.afinny.userservice.entity.Client;
 import by.afinny.userservice.entity.ClientStatus;
 import by.afinny.userservice.entity.PassportData;
@@ -16,11 +14,10 @@ import by.afinny.userservice.mapper.ClientMapper;
 import by.afinny.userservice.mapper.RequestRegisterNonClientMapper;
 import by.afinny.userservice.mapper.ResponseRegisterNonClientMapper;
 import by.afinny.userservice.mapper.UserProfileMapper;
-import by.afinny.userservice.openfeign.credit.CreditClient;
-import by.afinny.userservice.openfeign.deposit.AccountClient;
 import by.afinny.userservice.repository.ClientRepository;
 import by.afinny.userservice.repository.PassportDataRepository;
 import by.afinny.userservice.repository.UserProfileRepository;
+import by.afinny.userservice.service.ProductStatusService;
 import by.afinny.userservice.service.RegistrationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,7 +27,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -48,8 +44,7 @@ public class RegistrationServiceImpl implements RegistrationService {
     private final RequestRegisterNonClientMapper requestRegisterNonClientMapper;
     private final ResponseRegisterNonClientMapper responseRegisterNonClientMapper;
 
-    private final CreditClient creditClient;
-    private final AccountClient accountClient;
+    private final ProductStatusService productStatusService;
 
     private final PasswordEncoder passwordEncoder;
 
@@ -74,7 +69,7 @@ public class RegistrationServiceImpl implements RegistrationService {
     public void registerExistingClient(RequestClientDto user) {
         log.info("register() method is invoked");
         Client client = getVerifiedForRegistrationClientById(user.getId(), user.getMobilePhone());
-        client.setClientStatus(defineClientStatus(user.getId()));
+        client.setClientStatus(productStatusService.defineClientStatus(user.getId()));
         UserProfile registeringUserProfile = userProfileMapper.requestClientDtoToUserProfile(user);
         userProfileRepository.findByClientId(user.getId())
                 .ifPresent(userProfile -> registeringUserProfile.setId(userProfile.getId()));
@@ -180,16 +175,6 @@ public class RegistrationServiceImpl implements RegistrationService {
         registeringUserProfile.setEmailSubscription(false);
     }
 
-    private ClientStatus defineClientStatus(UUID clientId) {
-        List<CreditDto> activeCredits = creditClient.getActiveCredits(clientId).getBody();
-        List<AccountDto> activeAccounts = accountClient.getActiveAccounts(clientId).getBody();
-        if ((activeCredits != null && activeCredits.isEmpty()) &&
-                (activeAccounts != null && activeAccounts.isEmpty())) {
-            return ClientStatus.NOT_ACTIVE;
-        }
-        return ClientStatus.ACTIVE;
-    }
-
     private String encodePassword(String rawPassword) {
         return passwordEncoder.encode(rawPassword);
     }
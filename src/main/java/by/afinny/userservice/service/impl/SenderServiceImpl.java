@@ -1,18 +1,38 @@
 package by.afinny.userservice.service.impl;
 
+import by.afinny.userservice.exception.SmsSendingRejectedException;
 import by.afinny.userservice.service.SenderService;
+import by.afinny.userservice.sms.SmsDispatcher;
+import by.afinny.userservice.sms.SmsMessage;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Slf4j
 @Service
 @AllArgsConstructor
 public class SenderServiceImpl implements SenderService {
 
+    private final SmsDispatcher smsDispatcher;
+
     @Override
     public void sendMessageToMobilePhone(String mobilePhone, String message) {
-
+        SmsMessage smsMessage = new SmsMessage(mobilePhone, message);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!smsDispatcher.dispatch(smsMessage)) {
+                throw SmsSendingRejectedException.getInstance();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (!smsDispatcher.dispatch(smsMessage)) {
+                    log.warn("Sms to {} was rejected after commit", mobilePhone);
+                }
+            }
+        });
     }
 }
-
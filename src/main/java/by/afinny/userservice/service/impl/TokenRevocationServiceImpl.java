@@ -0,0 +1,72 @@
+package by.afinny.userservice.service.impl;
+
+import by.afinny.userservice.config.security.properties.TokenRevocationProperties;
+import by.afinny.userservice.dto.kafka.TokenRevocationEvent;
+import by.afinny.userservice.entity.TokenRevocation;
+import by.afinny.userservice.repository.TokenRevocationRepository;
+import by.afinny.userservice.security.TokenRevocationIndex;
+import by.afinny.userservice.service.TokenRevocationService;
+import by.afinny.userservice.util.constant.JWT;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final long MAX_TOKEN_LIFETIME_MILLIS = Long.parseLong(JWT.REFRESH_TOKEN_EXPIRATION.getValue());
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final TokenRevocationIndex tokenRevocationIndex;
+    private final TokenRevocationProperties tokenRevocationProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+
+    private volatile long loadedNotBefore = Long.MIN_VALUE;
+
+    @Override
+    public void revokeTokens(UUID clientId) {
+        log.info("revokeTokens() invoked");
+        // tokens issued within the same millisecond as the revocation are revoked as well
+        long notBefore = clock.millis() + 1;
+        tokenRevocationIndex.revoke(clientId, notBefore);
+        tokenRevocationRepository.upsertNotBefore(clientId, notBefore);
+        eventPublisher.publishEvent(new TokenRevocationEvent(clientId, notBefore));
+    }
+
+    @Override
+    public void applyRevocation(TokenRevocationEvent event) {
+        log.debug("applyRevocation() invoked");
+        tokenRevocationIndex.revoke(event.getClientId(), event.getNotBefore());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${security.token-revocation.reload-interval-ms:30000}")
+    public void reloadRevocations() {
+        long expiredBefore = clock.millis() - MAX_TOKEN_LIFETIME_MILLIS;
+        long from = loadedNotBefore == Long.MIN_VALUE ? expiredBefore : Math.max(expiredBefore,
+                loadedNotBefore - tokenRevocationProperties.getReloadOverlap().toMillis());
+        try {
+            List<TokenRevocation> revocations = tokenRevocationRepository.findByNotBeforeGreaterThanEqual(from);
+            long latest = loadedNotBefore;
+            for (TokenRevocation revocation : revocations) {
+                tokenRevocationIndex.revoke(revocation.getClientId(), revocation.getNotBefore());
+                latest = Math.max(latest, revocation.getNotBefore());
+            }
+            loadedNotBefore = Math.max(latest, from);
+            tokenRevocationIndex.removeOlderThan(expiredBefore);
+            tokenRevocationRepository.deleteExpired(expiredBefore);
+        } catch (DataAccessException e) {
+            log.warn("Unable to reload token revocations", e);
+        }
+    }
+}
@@ -5,17 +5,19 @@ import by.afinny.userservice.dto.PassportDto;
 import by.afinny.userservice.dto.SmsBlockExpirationDto;
 import by.afinny.userservice.dto.VerificationDto;
 import by.afinny.userservice.entity.Client;
-import by.afinny.userservice.entity.SmsBlockSending;
 import by.afinny.userservice.entity.Verification;
 import by.afinny.userservice.exception.BlockedReceiverException;
 import by.afinny.userservice.exception.EntityNotFoundException;
+import by.afinny.userservice.exception.SmsSendingRejectedException;
 import by.afinny.userservice.exception.VerificationCodeException;
 import by.afinny.userservice.mapper.MobilePhoneMapper;
 import by.afinny.userservice.repository.ClientRepository;
-import by.afinny.userservice.repository.SmsBlockSendingRepository;
-import by.afinny.userservice.repository.VerificationRepository;
+import by.afinny.userservice.repository.verification.SmsSendingReservation;
+import by.afinny.userservice.repository.verification.VerificationCheckResult;
+import by.afinny.userservice.repository.verification.VerificationStore;
 import by.afinny.userservice.service.SenderService;
 import by.afinny.userservice.service.VerificationService;
+import by.afinny.userservice.statistics.OtpStatistics;
 import by.afinny.userservice.util.VerificationUtil;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,41 +32,55 @@ import java.time.LocalDateTime;
 public class VerificationServiceImpl implements VerificationService {
 
     private final SenderService senderService;
-    private final VerificationRepository verificationRepository;
-    private final SmsBlockSendingRepository smsBlockSendingRepository;
+    private final VerificationStore verificationStore;
     private final ClientRepository clientRepository;
     private final MobilePhoneMapper mobilePhoneMapper;
+    private final OtpStatistics otpStatistics;
 
     private final static int CODE_EXPIRATION_IN_MINUTES = 15;
     private final static int BLOCK_EXPIRATION_IN_MINUTES = 10;
-    private final static int MAX_WRONG_ATTEMPTS_COUNTER = 3;
-    private final static int MAX_SEND_ATTEMPTS_COUNTER = 5;
-    private final static int BLOCK_TIME_IN_SECONDS = 600;
+    private final static VerificationCodeException INVALID_CODE = new VerificationCodeException(
+            Integer.toString(HttpStatus.BAD_REQUEST.value()), "Verification code is invalid!");
+    private final static VerificationCodeException EXPIRED_CODE = new VerificationCodeException(
+            Integer.toString(HttpStatus.BAD_REQUEST.value()), "Verification code expired!");
+    private final static EntityNotFoundException INCORRECT_NUMBER = new EntityNotFoundException("Incorrect number");
 
-    @Transactional
     @Override
     public SmsBlockExpirationDto createAndSendVerificationCode(String receiver) {
         log.info("createAndSendVerificationCode invoked()");
-        SmsBlockSending smsBlockSending = smsBlockSendingRepository.findById(receiver)
-                .map(this::setSmsBlockExpiration)
-                .orElseGet(() -> createSmsBlockSending(receiver));
-        Verification verification = verificationRepository.findByMobilePhone(receiver)
-                .map(this::setVerificationCodeAndExpiration)
+        SmsSendingReservation smsSendingReservation = reserveSmsSending(receiver);
+        Verification verification = verificationStore.findVerification(receiver)
+                .map(this::replaceVerificationCode)
                 .orElseGet(() -> createVerification(receiver));
-        sendVerification(verification);
-        Long smsBlockExpiration = VerificationUtil.calculateRemainingSeconds(smsBlockSending.getSmsBlockExpiration());
+        try {
+            sendVerification(verification);
+        } catch (SmsSendingRejectedException e) {
+            verificationStore.releaseSmsSending(receiver, smsSendingReservation);
+            throw e;
+        }
+        long smsBlockExpiration = smsSendingReservation.getRemainingSeconds();
         return new SmsBlockExpirationDto(Long.toString(smsBlockExpiration),verification.getVerificationCode());
     }
 
-    @Transactional(noRollbackFor = {BlockedReceiverException.class, VerificationCodeException.class})
     @Override
     public void checkVerificationCode(VerificationDto verificationDto) {
-        Verification sentVerification = getVerificationByReceiver(verificationDto.getMobilePhone());
-        verifyReceiverNotBlocked(sentVerification.getUserBlockExpiration());
-        checkWrongAttemptsCounter(sentVerification);
-        ensureThatCodeIsValid(verificationDto.getVerificationCode(), sentVerification);
-        ensureThatCodeIsExpire(sentVerification);
-        verificationRepository.delete(sentVerification);
+        String receiver = verificationDto.getMobilePhone();
+        VerificationCheckResult result = verificationStore.checkVerification(receiver,
+                verificationDto.getVerificationCode());
+        otpStatistics.recordCheck(result.getOutcome());
+        switch (result.getOutcome()) {
+            case NOT_FOUND:
+                throw new EntityNotFoundException("There is no code sent to " + receiver);
+            case BLOCKED:
+            case BLOCKED_NOW:
+                throw new BlockedReceiverException(result.getBlockSeconds());
+            case INVALID:
+                throw INVALID_CODE;
+            case EXPIRED:
+                throw EXPIRED_CODE;
+            case VALID:
+                break;
+        }
     }
 
     @Transactional
@@ -73,7 +89,7 @@ public class VerificationServiceImpl implements VerificationService {
         log.info("setUserBlockTimestamp() invoked");
         Verification verification = getVerificationByReceiver(mobilePhone.getMobilePhone());
         verification.setUserBlockExpiration(LocalDateTime.now().plusMinutes(BLOCK_EXPIRATION_IN_MINUTES));
-        verificationRepository.save(verification);
+        verificationStore.saveVerification(verification);
     }
 
     @Override
@@ -91,28 +107,24 @@ public class VerificationServiceImpl implements VerificationService {
         return setVerificationCodeAndExpiration(verification);
     }
 
-    private SmsBlockSending createSmsBlockSending(String receiver) {
-        SmsBlockSending smsBlockSending = SmsBlockSending.builder()
-                .mobilePhone(receiver)
-                .sendingCount(0)
-                .build();
-        return setSmsBlockExpiration(smsBlockSending);
+    private Verification replaceVerificationCode(Verification verification) {
+        otpStatistics.recordReplacedUnused();
+        return setVerificationCodeAndExpiration(verification);
     }
 
     private Verification setVerificationCodeAndExpiration(Verification verification) {
         verification.setVerificationCode(VerificationUtil.generateVerificationCode());
         verification.setCodeExpiration(LocalDateTime.now().plusMinutes(CODE_EXPIRATION_IN_MINUTES));
-        return verificationRepository.save(verification);
+        return verificationStore.saveVerification(verification);
     }
 
-    private SmsBlockSending setSmsBlockExpiration(SmsBlockSending smsBlockSending) {
-        verifyReceiverNotBlocked(smsBlockSending.getSmsBlockExpiration());
-        Integer sendingCount = smsBlockSending.getSendingCount();
-        LocalDateTime smsBlockExpiration = sendingCount < MAX_SEND_ATTEMPTS_COUNTER ?
-                VerificationUtil.generateSmsBlockExpiration(sendingCount) : LocalDateTime.now().plusSeconds(BLOCK_TIME_IN_SECONDS);
-        smsBlockSending.setSendingCount(++sendingCount);
-        smsBlockSending.setSmsBlockExpiration(smsBlockExpiration);
-        return smsBlockSendingRepository.save(smsBlockSending);
+    private SmsSendingReservation reserveSmsSending(String receiver) {
+        SmsSendingReservation smsSendingReservation = verificationStore.reserveSmsSending(receiver);
+        otpStatistics.recordSmsReservation(receiver, smsSendingReservation);
+        if (!smsSendingReservation.isGranted()) {
+            throw new BlockedReceiverException(smsSendingReservation.getRemainingSeconds());
+        }
+        return smsSendingReservation;
     }
 
     private void sendVerification(Verification verification) {
@@ -120,51 +132,15 @@ public class VerificationServiceImpl implements VerificationService {
         senderService.sendMessageToMobilePhone(verification.getMobilePhone(), message);
     }
 
-    private void verifyReceiverNotBlocked(LocalDateTime blockExpiration) {
-        long remainingBlockSeconds = VerificationUtil.calculateRemainingSeconds(blockExpiration);
-        if (VerificationUtil.isRemain(remainingBlockSeconds)) {
-            throw new BlockedReceiverException(remainingBlockSeconds);
-        }
-    }
-
-    private void ensureThatCodeIsValid(String verificationCode, Verification sentVerification) {
-        if (VerificationUtil.isCodeInvalid(verificationCode, sentVerification.getVerificationCode())) {
-            Integer wrongAttemptsCounter = sentVerification.getWrongAttemptsCounter() + 1;
-            sentVerification.setWrongAttemptsCounter(wrongAttemptsCounter);
-            verificationRepository.save(sentVerification);
-            throw new VerificationCodeException(Integer.toString(HttpStatus.BAD_REQUEST.value()),
-                   "Verification code is invalid!");
-        }
-    }
-
-    private void ensureThatCodeIsExpire(Verification sentVerification) {
-        if (VerificationUtil.isExpire(sentVerification.getCodeExpiration())) {
-            throw new VerificationCodeException(Integer.toString(HttpStatus.BAD_REQUEST.value()),
-                    "Verification code expired!");
-        }
-    }
-
-    private void checkWrongAttemptsCounter(Verification sentVerification) {
-        int wrongAttemptsCounter = sentVerification.getWrongAttemptsCounter() + 1;
-        if (wrongAttemptsCounter > MAX_WRONG_ATTEMPTS_COUNTER) {
-            LocalDateTime userBlockExpiration = VerificationUtil.generateUserBlockExpiration();
-            long remainingSeconds = VerificationUtil.calculateRemainingSeconds(userBlockExpiration);
-            sentVerification.setUserBlockExpiration(userBlockExpiration);
-            sentVerification.setWrongAttemptsCounter(0);
-            verificationRepository.save(sentVerification);
-            throw new BlockedReceiverException(remainingSeconds);
-        }
-    }
-
     private Verification getVerificationByReceiver(String receiver) {
         log.info("getVerificationByReceiver() invoked");
-        return verificationRepository
-                .findByMobilePhone(receiver)
+        return verificationStore
+                .findVerification(receiver)
                 .orElseThrow(() -> new EntityNotFoundException("There is no code sent to " + receiver));
     }
 
     private Client getClientByPassportNumber(String passportNumber) {
         return clientRepository.findClientByPassportDataPassportNumber(passportNumber)
-                .orElseThrow(() -> new EntityNotFoundException("Incorrect number"));
+                .orElseThrow(() -> INCORRECT_NUMBER);
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package by.afinny.userservice.service.impl;
+
+import by.afinny.userservice.config.verification.properties.VerificationStoreProperties;
+import by.afinny.userservice.config.verification.properties.VerificationSweeperProperties;
+import by.afinny.userservice.repository.verification.SweepResult;
+import by.afinny.userservice.repository.verification.VerificationSweepRepository;
+import by.afinny.userservice.service.VerificationSweepService;
+import by.afinny.userservice.statistics.OtpStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+@ConditionalOnProperty(prefix = "verification.sweeper", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class VerificationSweepServiceImpl implements VerificationSweepService {
+
+    private static final String METRIC_PREFIX = "verification.sweeper";
+
+    private final VerificationSweepRepository verificationSweepRepository;
+    private final VerificationStoreProperties verificationStoreProperties;
+    private final VerificationSweeperProperties verificationSweeperProperties;
+    private final OtpStatistics otpStatistics;
+    private final Counter verificationsPurgedCounter;
+    private final Counter smsBlocksPurgedCounter;
+    private final Counter skippedCounter;
+    private final Timer runTimer;
+
+    public VerificationSweepServiceImpl(VerificationSweepRepository verificationSweepRepository,
+                                        VerificationStoreProperties verificationStoreProperties,
+                                        VerificationSweeperProperties verificationSweeperProperties,
+                                        OtpStatistics otpStatistics,
+                                        MeterRegistry meterRegistry) {
+        this.verificationSweepRepository = verificationSweepRepository;
+        this.verificationStoreProperties = verificationStoreProperties;
+        this.verificationSweeperProperties = verificationSweeperProperties;
+        this.otpStatistics = otpStatistics;
+        this.verificationsPurgedCounter = Counter.builder(METRIC_PREFIX + ".purged")
+                .tag("table", "verification")
+                .register(meterRegistry);
+        this.smsBlocksPurgedCounter = Counter.builder(METRIC_PREFIX + ".purged")
+                .tag("table", "sms_block_sending")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder(METRIC_PREFIX + ".skipped")
+                .description("Sweeps skipped because another instance held the lock")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder(METRIC_PREFIX + ".run")
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${verification.sweeper.interval-ms:60000}",
+            initialDelayString = "${verification.sweeper.interval-ms:60000}")
+    public void sweepExpired() {
+        long started = System.nanoTime();
+        try {
+            Optional<SweepResult> result = verificationSweepRepository.sweepExpired(
+                    verificationStoreProperties.getRetention().getSeconds(),
+                    verificationSweeperProperties.getBatchSize(),
+                    verificationSweeperProperties.getMaxBatchesPerRun());
+            if (result.isEmpty()) {
+                skippedCounter.increment();
+                return;
+            }
+            SweepResult sweepResult = result.get();
+            verificationsPurgedCounter.increment(sweepResult.getVerifications());
+            otpStatistics.recordExpiredUnused(sweepResult.getVerifications());
+            smsBlocksPurgedCounter.increment(sweepResult.getSmsBlocks());
+            long elapsedNanos = System.nanoTime() - started;
+            runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (sweepResult.getVerifications() + sweepResult.getSmsBlocks() > 0) {
+                log.info("Purged {} verifications and {} sms blocks in {} ms", sweepResult.getVerifications(),
+                        sweepResult.getSmsBlocks(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Unable to sweep expired verifications. {}", e.getMessage());
+        }
+    }
+}
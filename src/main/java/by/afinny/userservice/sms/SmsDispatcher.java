@@ -0,0 +1,248 @@
+package by.afinny.userservice.sms;
+
+import by.afinny.userservice.config.sms.properties.SmsDispatchProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers SMS messages through a bounded queue per gateway. A dispatch thread per gateway collects
+ * messages into batches, waiting at most the linger time for a batch to fill, and hands them to send
+ * threads limited by the gateway's concurrency permits. Failed batches are requeued message by message
+ * after a jittered exponential backoff until the attempts run out.
+ */
+@Slf4j
+@Component
+public class SmsDispatcher implements DisposableBean {
+
+    private static final String METRIC_PREFIX = "sms.dispatch";
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final SmsDispatchProperties properties;
+    private final List<Lane> lanes = new ArrayList<>();
+    private final ExecutorService sendExecutor;
+    private final ScheduledExecutorService retryScheduler;
+    private final Counter noGatewayCounter;
+    private volatile boolean running = true;
+
+    public SmsDispatcher(List<SmsGateway> gateways, SmsDispatchProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sendExecutor = Executors.newCachedThreadPool(daemonThreadFactory("sms-send-"));
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("sms-retry-"));
+        this.noGatewayCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .tag("gateway", "none")
+                .tag("reason", "no_gateway")
+                .register(meterRegistry);
+        for (SmsGateway gateway : gateways) {
+            Lane lane = new Lane(gateway, meterRegistry);
+            lanes.add(lane);
+            lane.thread.start();
+        }
+    }
+
+    /**
+     * @return false if no gateway supports the receiver or its gateway queue is full
+     */
+    public boolean dispatch(SmsMessage message) {
+        Lane lane = findLane(message.getMobilePhone());
+        if (lane == null) {
+            noGatewayCounter.increment();
+            log.warn("No sms gateway supports receiver {}", message.getMobilePhone());
+            return false;
+        }
+        if (!lane.queue.offer(message)) {
+            lane.rejectedCounter.increment();
+            log.warn("Sms queue of gateway {} is full, message dropped", lane.gateway.getName());
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        lanes.forEach(lane -> lane.thread.interrupt());
+        retryScheduler.shutdownNow();
+        sendExecutor.shutdown();
+        sendExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        for (Lane lane : lanes) {
+            if (!lane.queue.isEmpty()) {
+                log.warn("{} sms messages of gateway {} were not sent", lane.queue.size(), lane.gateway.getName());
+            }
+        }
+    }
+
+    private Lane findLane(String mobilePhone) {
+        for (Lane lane : lanes) {
+            if (lane.gateway.supports(mobilePhone)) {
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    private long backoffMillis(int attempt) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long cap = Math.min(properties.getMaxBackoff().toMillis(), initial << Math.min(attempt, 30));
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Lane implements Runnable {
+
+        private final SmsGateway gateway;
+        private final BlockingQueue<SmsMessage> queue;
+        private final Semaphore permits;
+        private final Thread thread;
+        private final Counter sentCounter;
+        private final Counter failedBatchCounter;
+        private final Counter retriedCounter;
+        private final Counter droppedCounter;
+        private final Counter rejectedCounter;
+        private final Timer batchTimer;
+
+        private Lane(SmsGateway gateway, MeterRegistry meterRegistry) {
+            this.gateway = gateway;
+            this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+            this.permits = new Semaphore(properties.getMaxConcurrentBatches());
+            this.thread = new Thread(this, "sms-dispatch-" + gateway.getName());
+            this.thread.setDaemon(true);
+            String name = gateway.getName();
+            this.sentCounter = Counter.builder(METRIC_PREFIX + ".sent").tag("gateway", name).register(meterRegistry);
+            this.failedBatchCounter = Counter.builder(METRIC_PREFIX + ".failed.batches").tag("gateway", name)
+                    .register(meterRegistry);
+            this.retriedCounter = Counter.builder(METRIC_PREFIX + ".retried").tag("gateway", name)
+                    .register(meterRegistry);
+            this.droppedCounter = Counter.builder(METRIC_PREFIX + ".dropped").tag("gateway", name)
+                    .description("Messages given up after the last attempt")
+                    .register(meterRegistry);
+            this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected").tag("gateway", name)
+                    .tag("reason", "queue_full")
+                    .register(meterRegistry);
+            this.batchTimer = Timer.builder(METRIC_PREFIX + ".batch").tag("gateway", name).register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".queue.size", queue, BlockingQueue::size).tag("gateway", name)
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".inflight.batches", permits,
+                            semaphore -> properties.getMaxConcurrentBatches() - semaphore.availablePermits())
+                    .tag("gateway", name)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    List<SmsMessage> batch = collectBatch();
+                    if (!batch.isEmpty()) {
+                        permits.acquire();
+                        submit(batch);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private List<SmsMessage> collectBatch() throws InterruptedException {
+            SmsMessage first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return List.of();
+            }
+            int batchSize = properties.getBatchSize();
+            List<SmsMessage> batch = new ArrayList<>(batchSize);
+            batch.add(first);
+            long deadline = System.nanoTime() + properties.getLinger().toNanos();
+            while (batch.size() < batchSize) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    break;
+                }
+                SmsMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+            return batch;
+        }
+
+        private void submit(List<SmsMessage> batch) {
+            try {
+                sendExecutor.execute(() -> {
+                    try {
+                        send(batch);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                log.warn("{} sms messages of gateway {} were not sent", batch.size(), gateway.getName());
+            }
+        }
+
+        private void send(List<SmsMessage> batch) {
+            long started = System.nanoTime();
+            try {
+                gateway.send(batch);
+                sentCounter.increment(batch.size());
+            } catch (RuntimeException e) {
+                failedBatchCounter.increment();
+                log.warn("Sms gateway {} failed to send {} messages. {}", gateway.getName(), batch.size(), e.getMessage());
+                batch.forEach(this::retry);
+            } finally {
+                batchTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void retry(SmsMessage message) {
+            SmsMessage next = message.nextAttempt();
+            if (next.getAttempt() >= properties.getMaxAttempts() || !running) {
+                droppedCounter.increment();
+                log.warn("Giving up sending sms to {} after {} attempts", message.getMobilePhone(), next.getAttempt());
+                return;
+            }
+            try {
+                retryScheduler.schedule(() -> requeue(next), backoffMillis(message.getAttempt()), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                droppedCounter.increment();
+            }
+        }
+
+        private void requeue(SmsMessage message) {
+            if (queue.offer(message)) {
+                retriedCounter.increment();
+            } else {
+                droppedCounter.increment();
+                log.warn("Sms queue of gateway {} is full, retry of {} dropped", gateway.getName(), message.getMobilePhone());
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package by.afinny.userservice.sms;
+
+import java.util.List;
+
+public interface SmsGateway {
+
+    String getName();
+
+    boolean supports(String mobilePhone);
+
+    /**
+     * Sends the whole batch or throws, in which case every message of the batch is retried.
+     */
+    void send(List<SmsMessage> batch);
+}
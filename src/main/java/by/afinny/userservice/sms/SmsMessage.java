@@ -0,0 +1,23 @@
+package by.afinny.userservice.sms;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString(exclude = "text")
+@AllArgsConstructor
+public class SmsMessage {
+
+    private final String mobilePhone;
+    private final String text;
+    private final int attempt;
+
+    public SmsMessage(String mobilePhone, String text) {
+        this(mobilePhone, text, 0);
+    }
+
+    SmsMessage nextAttempt() {
+        return new SmsMessage(mobilePhone, text, attempt + 1);
+    }
+}
@@ -0,0 +1,39 @@
+package by.afinny.userservice.sms;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local gateway that accepts every message without sending it anywhere.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "sms.gateway.stub", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StubSmsGateway implements SmsGateway {
+
+    private final AtomicLong sentMessages = new AtomicLong();
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public boolean supports(String mobilePhone) {
+        return true;
+    }
+
+    @Override
+    public void send(List<SmsMessage> batch) {
+        log.debug("Stub gateway accepted {} messages", batch.size());
+        sentMessages.addAndGet(batch.size());
+    }
+
+    public long getSentMessages() {
+        return sentMessages.get();
+    }
+}
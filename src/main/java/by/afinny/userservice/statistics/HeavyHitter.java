@@ -0,0 +1,16 @@
+package by.afinny.userservice.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Estimated occurrences of an item; the true count lies between {@code count - error} and {@code count}.
+ */
+@Getter
+@AllArgsConstructor
+public class HeavyHitter {
+
+    private final String item;
+    private final long count;
+    private final long error;
+}
@@ -0,0 +1,126 @@
+package by.afinny.userservice.statistics;
+
+import by.afinny.userservice.config.verification.properties.OtpStatisticsProperties;
+import by.afinny.userservice.repository.verification.SmsSendingReservation;
+import by.afinny.userservice.repository.verification.VerificationCheckOutcome;
+import by.afinny.userservice.util.VerificationUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts OTP sendings and checks in {@link LongAdder}s exported as Micrometer counters, and feeds the
+ * phone prefix of every sending request into a {@link SpaceSavingSketch} to expose the hottest prefixes.
+ * The backoff level of a sending is its sending count, the level past the last attempt blocks the phone.
+ * A code that is never checked successfully is counted once, either when a resend replaces it or when
+ * the store purges it after expiration.
+ */
+@Component
+public class OtpStatistics {
+
+    private static final String METRIC_PREFIX = "otp";
+    private static final int BLOCKING_BACKOFF_LEVEL = VerificationUtil.MAX_SEND_ATTEMPTS_COUNTER + 1;
+
+    private final OtpStatisticsProperties properties;
+    private final SpaceSavingSketch prefixes;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder[] backoffLevels = new LongAdder[BLOCKING_BACKOFF_LEVEL];
+    private final Map<VerificationCheckOutcome, LongAdder> checks = new EnumMap<>(VerificationCheckOutcome.class);
+    private final LongAdder expiredUnused = new LongAdder();
+    private final LongAdder replacedUnused = new LongAdder();
+
+    public OtpStatistics(OtpStatisticsProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.prefixes = new SpaceSavingSketch(properties.getTrackedPrefixes());
+        register(meterRegistry, METRIC_PREFIX + ".sms", sent, "outcome", "sent");
+        register(meterRegistry, METRIC_PREFIX + ".sms", throttled, "outcome", "throttled");
+        for (int level = 1; level <= BLOCKING_BACKOFF_LEVEL; level++) {
+            backoffLevels[level - 1] = new LongAdder();
+            register(meterRegistry, METRIC_PREFIX + ".sms.backoff", backoffLevels[level - 1],
+                    "level", Integer.toString(level));
+        }
+        for (VerificationCheckOutcome outcome : VerificationCheckOutcome.values()) {
+            LongAdder adder = new LongAdder();
+            checks.put(outcome, adder);
+            register(meterRegistry, METRIC_PREFIX + ".checks", adder, "outcome", tagValue(outcome));
+        }
+        register(meterRegistry, METRIC_PREFIX + ".blocks", checks.get(VerificationCheckOutcome.BLOCKED_NOW),
+                "reason", "wrong_attempts");
+        register(meterRegistry, METRIC_PREFIX + ".blocks", backoffLevels[BLOCKING_BACKOFF_LEVEL - 1],
+                "reason", "sms_resend");
+        register(meterRegistry, METRIC_PREFIX + ".codes.unused", expiredUnused, "reason", "expired");
+        register(meterRegistry, METRIC_PREFIX + ".codes.unused", replacedUnused, "reason", "replaced");
+    }
+
+    public void recordSmsReservation(String mobilePhone, SmsSendingReservation reservation) {
+        prefixes.offer(prefixOf(mobilePhone));
+        if (!reservation.isGranted()) {
+            throttled.increment();
+            return;
+        }
+        sent.increment();
+        int level = Math.max(1, Math.min(reservation.getSendingCount(), BLOCKING_BACKOFF_LEVEL));
+        backoffLevels[level - 1].increment();
+    }
+
+    public void recordCheck(VerificationCheckOutcome outcome) {
+        checks.get(outcome).increment();
+    }
+
+    public void recordExpiredUnused(long codes) {
+        expiredUnused.add(codes);
+    }
+
+    public void recordReplacedUnused() {
+        replacedUnused.increment();
+    }
+
+    public Map<String, Long> counters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("sms.sent", sent.sum());
+        counters.put("sms.throttled", throttled.sum());
+        for (int level = 1; level <= BLOCKING_BACKOFF_LEVEL; level++) {
+            counters.put("sms.backoff.level." + level, backoffLevels[level - 1].sum());
+        }
+        checks.forEach((outcome, adder) -> counters.put("checks." + tagValue(outcome), adder.sum()));
+        counters.put("codes.unused.expired", expiredUnused.sum());
+        counters.put("codes.unused.replaced", replacedUnused.sum());
+        return counters;
+    }
+
+    public List<HeavyHitter> hottestPrefixes() {
+        return prefixes.top(properties.getTopPrefixes());
+    }
+
+    public long trackedRequests() {
+        return prefixes.total();
+    }
+
+    public void resetPrefixes() {
+        prefixes.clear();
+    }
+
+    private String prefixOf(String mobilePhone) {
+        return mobilePhone.length() <= properties.getPrefixLength()
+                ? mobilePhone
+                : mobilePhone.substring(0, properties.getPrefixLength());
+    }
+
+    private static String tagValue(VerificationCheckOutcome outcome) {
+        return outcome.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static void register(MeterRegistry meterRegistry, String name, LongAdder adder, String tag, String value) {
+        FunctionCounter.builder(name, adder, LongAdder::sum)
+                .tag(tag, value)
+                .register(meterRegistry);
+    }
+}
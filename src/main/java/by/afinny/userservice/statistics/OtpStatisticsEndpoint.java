@@ -0,0 +1,32 @@
+package by.afinny.userservice.statistics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "otpstatistics")
+@RequiredArgsConstructor
+public class OtpStatisticsEndpoint {
+
+    private final OtpStatistics otpStatistics;
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("counters", otpStatistics.counters());
+        statistics.put("trackedRequests", otpStatistics.trackedRequests());
+        statistics.put("hottestPrefixes", otpStatistics.hottestPrefixes());
+        return statistics;
+    }
+
+    @DeleteOperation
+    public void resetPrefixes() {
+        otpStatistics.resetPrefixes();
+    }
+}
@@ -0,0 +1,181 @@
+package by.afinny.userservice.statistics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving heavy hitters sketch. At most {@code capacity} items are counted; an untracked item takes
+ * over the counter with the smallest count and inherits that count as its error, so every item occurring
+ * more than {@code total / capacity} times is tracked. Counters are kept ordered by count, an update costs
+ * O(log capacity).
+ * <p>
+ * Offers are spread over stripes by thread, each stripe a sketch with its own lock, so recording threads
+ * don't contend on one lock. Reads merge the stripes: an item missing from a full stripe is counted with
+ * that stripe's smallest count, both in its count and its error, which keeps the bounds of a single sketch.
+ */
+public class SpaceSavingSketch {
+
+    private static final Comparator<Counter> BY_COUNT = Comparator.<Counter>comparingLong(counter -> counter.count)
+            .thenComparing(counter -> counter.item);
+    private static final Comparator<HeavyHitter> BY_MERGED_COUNT = Comparator.comparingLong(HeavyHitter::getCount)
+            .reversed()
+            .thenComparing(HeavyHitter::getItem);
+
+    private final Stripe[] stripes;
+
+    public SpaceSavingSketch(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SpaceSavingSketch(int capacity, int stripes) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripes must be positive: " + stripes);
+        }
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    public void offer(String item) {
+        stripes[(int) (Thread.currentThread().getId() % stripes.length)].offer(item);
+    }
+
+    /**
+     * @return up to {@code limit} tracked items, most frequent first
+     */
+    public List<HeavyHitter> top(int limit) {
+        if (stripes.length == 1) {
+            return stripes[0].top(limit);
+        }
+        List<Map<String, HeavyHitter>> snapshots = new ArrayList<>(stripes.length);
+        long[] floors = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            synchronized (stripe) {
+                snapshots.add(stripe.snapshot());
+                floors[i] = stripe.floor();
+            }
+        }
+        Map<String, long[]> merged = new HashMap<>();
+        for (Map<String, HeavyHitter> snapshot : snapshots) {
+            for (String item : snapshot.keySet()) {
+                merged.computeIfAbsent(item, key -> new long[2]);
+            }
+        }
+        for (Map.Entry<String, long[]> entry : merged.entrySet()) {
+            long[] countAndError = entry.getValue();
+            for (int i = 0; i < snapshots.size(); i++) {
+                HeavyHitter counted = snapshots.get(i).get(entry.getKey());
+                countAndError[0] += counted == null ? floors[i] : counted.getCount();
+                countAndError[1] += counted == null ? floors[i] : counted.getError();
+            }
+        }
+        List<HeavyHitter> top = new ArrayList<>(merged.size());
+        merged.forEach((item, countAndError) -> top.add(new HeavyHitter(item, countAndError[0], countAndError[1])));
+        top.sort(BY_MERGED_COUNT);
+        return top.size() <= limit ? top : new ArrayList<>(top.subList(0, limit));
+    }
+
+    public long total() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.total;
+            }
+        }
+        return total;
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    private static final class Stripe {
+
+        private final int capacity;
+        private final Map<String, Counter> counters;
+        private final NavigableSet<Counter> ordered = new TreeSet<>(BY_COUNT);
+        private long total;
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+            this.counters = new HashMap<>(capacity * 2);
+        }
+
+        private synchronized void offer(String item) {
+            total++;
+            Counter counter = counters.get(item);
+            if (counter != null) {
+                ordered.remove(counter);
+                counter.count++;
+                ordered.add(counter);
+                return;
+            }
+            if (counters.size() < capacity) {
+                counter = new Counter(item, 1, 0);
+            } else {
+                Counter smallest = ordered.pollFirst();
+                counters.remove(smallest.item);
+                counter = new Counter(item, smallest.count + 1, smallest.count);
+            }
+            counters.put(item, counter);
+            ordered.add(counter);
+        }
+
+        private synchronized List<HeavyHitter> top(int limit) {
+            List<HeavyHitter> top = new ArrayList<>(Math.min(limit, counters.size()));
+            Iterator<Counter> iterator = ordered.descendingIterator();
+            while (iterator.hasNext() && top.size() < limit) {
+                Counter counter = iterator.next();
+                top.add(new HeavyHitter(counter.item, counter.count, counter.error));
+            }
+            return top;
+        }
+
+        private Map<String, HeavyHitter> snapshot() {
+            Map<String, HeavyHitter> snapshot = new HashMap<>(counters.size() * 2);
+            for (Counter counter : counters.values()) {
+                snapshot.put(counter.item, new HeavyHitter(counter.item, counter.count, counter.error));
+            }
+            return snapshot;
+        }
+
+        /**
+         * @return the most an untracked item may have occurred in this stripe
+         */
+        private long floor() {
+            return counters.size() < capacity ? 0 : ordered.first().count;
+        }
+
+        private synchronized void clear() {
+            counters.clear();
+            ordered.clear();
+            total = 0;
+        }
+    }
+
+    private static final class Counter {
+
+        private final String item;
+        private final long error;
+        private long count;
+
+        private Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package by.afinny.userservice.util;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Generates verification codes from a per-thread DRBG, so neither seeding nor contention on a shared
+ * {@link SecureRandom} is paid per code. Random bytes are drawn in blocks and consumed three at a time
+ * with rejection sampling, which keeps the codes uniform and amortizes the DRBG's own allocations.
+ * Each generator reseeds itself after a fixed number of blocks.
+ */
+public final class VerificationCodeGenerator {
+
+    public static final int CODE_LENGTH = 6;
+
+    private static final String DRBG = "DRBG";
+    private static final int CODE_BOUND = 1_000_000;
+    private static final int SAMPLE_BOUND = 0x1000000 / CODE_BOUND * CODE_BOUND;
+    private static final int BLOCK_SIZE = 3 * 64;
+    private static final int RESEED_INTERVAL = 1 << 12;
+    private static final ThreadLocal<VerificationCodeGenerator> GENERATOR =
+            ThreadLocal.withInitial(VerificationCodeGenerator::new);
+
+    private final SecureRandom random = createRandom();
+    private final boolean reseedable = DRBG.equals(random.getAlgorithm());
+    private final char[] code = new char[CODE_LENGTH];
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private int position = BLOCK_SIZE;
+    private int blocksSinceReseed;
+
+    private VerificationCodeGenerator() {
+    }
+
+    public static String generate() {
+        VerificationCodeGenerator generator = GENERATOR.get();
+        generator.fill(generator.code);
+        return new String(generator.code);
+    }
+
+    /**
+     * Writes a code into the first {@link #CODE_LENGTH} chars of the target.
+     */
+    public static void generate(char[] target) {
+        GENERATOR.get().fill(target);
+    }
+
+    private void fill(char[] target) {
+        int value = nextValue();
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private int nextValue() {
+        while (true) {
+            if (position == BLOCK_SIZE) {
+                refill();
+            }
+            int sample = (block[position] & 0xFF) << 16 | (block[position + 1] & 0xFF) << 8 | block[position + 2] & 0xFF;
+            position += 3;
+            if (sample < SAMPLE_BOUND) {
+                return sample % CODE_BOUND;
+            }
+        }
+    }
+
+    private void refill() {
+        if (reseedable && ++blocksSinceReseed > RESEED_INTERVAL) {
+            random.reseed();
+            blocksSinceReseed = 1;
+        }
+        random.nextBytes(block);
+        position = 0;
+    }
+
+    private static SecureRandom createRandom() {
+        try {
+            return SecureRandom.getInstance(DRBG);
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
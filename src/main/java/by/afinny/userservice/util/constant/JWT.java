@@ -4,6 +4,8 @@ public enum JWT {
 
     KEY("jxgEQeXHuPq8VdbyYFNkANdudQ53YUn4"),
     HEADER("Authorization"),
+    REFRESH_HEADER("Refresh-Token"),
+    TOKEN_PREFIX("Bearer "),
     ACCESS_TOKEN_EXPIRATION("600000"),
     REFRESH_TOKEN_EXPIRATION("1800000");
 
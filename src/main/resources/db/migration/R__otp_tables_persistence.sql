@@ -0,0 +1,17 @@
+-- OTP state is short-lived and can be re-requested, so it may skip the WAL when otp_tables_unlogged is true.
+-- Unlogged tables are truncated after a crash and are not replicated; a missing row means a new code is sent.
+DO
+$$
+    DECLARE
+        otp_table   TEXT;
+        persistence "char" := CASE WHEN '${otp_tables_unlogged}' = 'true' THEN 'u' ELSE 'p' END;
+    BEGIN
+        FOREACH otp_table IN ARRAY ARRAY ['verification', 'sms_block_sending']
+            LOOP
+                IF (SELECT relpersistence FROM pg_class WHERE oid = otp_table::regclass) <> persistence THEN
+                    EXECUTE format('ALTER TABLE %I SET %s', otp_table,
+                                   CASE WHEN persistence = 'u' THEN 'UNLOGGED' ELSE 'LOGGED' END);
+                END IF;
+            END LOOP;
+    END
+$$;
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS user_profile_client_id_idx ON user_profile (client_id);
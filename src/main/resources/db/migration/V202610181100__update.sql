@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS token_revocation
+(
+    client_id  UUID PRIMARY KEY,
+    not_before BIGINT NOT NULL -- epoch milliseconds, tokens issued earlier are revoked
+);
+CREATE INDEX IF NOT EXISTS token_revocation_not_before_idx ON token_revocation (not_before);
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS client_active_product
+(
+    product_id UUID PRIMARY KEY,
+    client_id  UUID NOT NULL,
+    closed     BOOLEAN NOT NULL DEFAULT FALSE
+);
+CREATE TABLE IF NOT EXISTS client_product_counter
+(
+    client_id       UUID PRIMARY KEY,
+    active_products INTEGER NOT NULL
+);
@@ -1,8 +1,10 @@
 package by.afinny.userservice.integration.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import by.afinny.userservice.integration.config.annotation.TestWithPostgresContainer;
@@ -110,9 +112,12 @@ public class AuthenticationControllerIT {
         //ARRANGE
         createLoginDto(login, type, "qwerty000");
         //ACT & VERIFY
-        mockMvc.perform(MockMvcRequestBuilders.post(AuthenticationController.AUTHENTICATION_URL)
+        MvcResult asyncResult = mockMvc.perform(MockMvcRequestBuilders.post(AuthenticationController.AUTHENTICATION_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(loginDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isBadRequest());
     }
 
@@ -123,9 +128,12 @@ public class AuthenticationControllerIT {
         //ARRANGE
         createLoginDto(login, type, STORED_PASSWORD);
         //ACT
-        MvcResult result = mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL)
+        MvcResult asyncResult = mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(loginDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andReturn();
         //VERIFY
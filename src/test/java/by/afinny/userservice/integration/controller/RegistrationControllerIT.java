@@ -6,8 +6,6 @@ import by.afinny.userservice.controller.RegistrationController;
 import by.afinny.userservice.dto.ClientDto;
 import by.afinny.userservice.dto.RequestClientDto;
 import by.afinny.userservice.dto.RequestNonClientDto;
-import by.afinny.userservice.dto.credit.CreditDto;
-import by.afinny.userservice.dto.deposit.AccountDto;
 import by.afinny.userservice.entity.Client;
 import by.afinny.userservice.entity.ClientStatus;
 import by.afinny.userservice.entity.PassportData;
@@ -33,7 +31,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
 import org.springframework.test.web.servlet.MockMvc;
@@ -41,7 +38,6 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.IOException;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
@@ -203,15 +199,15 @@ public class RegistrationControllerIT {
     @ParameterizedTest
     @MethodSource("generateProducts")
     @DisplayName("If client has been successfully registered then return response client dto")
-    void registerExistingClient_shouldReturnResponseClientDto(List<CreditDto> credits,
-                                                              List<AccountDto> accounts,
+    void registerExistingClient_shouldReturnResponseClientDto(boolean hasCredits,
+                                                              boolean hasAccounts,
                                                               ClientStatus expectedClientStatus)
             throws Exception {
         //ARRANGE
-        when(creditClient.getActiveCredits(requestClientDto.getId()))
-                .thenReturn(ResponseEntity.ok(credits));
-        when(accountClient.getActiveAccounts(requestClientDto.getId()))
-                .thenReturn(ResponseEntity.ok(accounts));
+        when(creditClient.hasActiveCredits(requestClientDto.getId()))
+                .thenReturn(hasCredits);
+        when(accountClient.hasActiveAccounts(requestClientDto.getId()))
+                .thenReturn(hasAccounts);
         //ACT
         mockMvc.perform(
                         patch(RegistrationController.REGISTRATION_URL + RegistrationController.CLIENT_REGISTRATION_URL)
@@ -227,10 +223,10 @@ public class RegistrationControllerIT {
     }
 
     private Stream<Arguments> generateProducts() {
-        return Stream.of(Arguments.of(List.of(), List.of(), ClientStatus.NOT_ACTIVE),
-                Arguments.of(List.of(new CreditDto()), List.of(), ClientStatus.ACTIVE),
-                Arguments.of(List.of(), List.of(new AccountDto()), ClientStatus.ACTIVE),
-                Arguments.of(List.of(new CreditDto()), List.of(new AccountDto()), ClientStatus.ACTIVE));
+        return Stream.of(Arguments.of(false, false, ClientStatus.NOT_ACTIVE),
+                Arguments.of(true, false, ClientStatus.ACTIVE),
+                Arguments.of(false, true, ClientStatus.ACTIVE),
+                Arguments.of(true, true, ClientStatus.ACTIVE));
     }
 
     @Test
@@ -2,8 +2,6 @@ package by.afinny.userservice.integration.service;
 
 import by.afinny.userservice.dto.RequestClientDto;
 import by.afinny.userservice.dto.RequestNonClientDto;
-import by.afinny.userservice.dto.credit.CreditDto;
-import by.afinny.userservice.dto.deposit.AccountDto;
 import by.afinny.userservice.entity.Client;
 import by.afinny.userservice.entity.ClientStatus;
 import by.afinny.userservice.entity.PassportData;
@@ -23,12 +21,10 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -150,8 +146,8 @@ public class RegistrationServiceImplIT {
     @DisplayName("If user profile was found then and client status related on active then save")
     void registerExistingClient_ifClientHasBankingProducts_thenStatusActiveAndSave() {
         //ARRANGE
-        when(creditClient.getActiveCredits(clientRegistrated.getId())).thenReturn(ResponseEntity.ok(List.of(new CreditDto())));
-        when(accountClient.getActiveAccounts(clientRegistrated.getId())).thenReturn(ResponseEntity.ok(List.of(new AccountDto())));
+        when(creditClient.hasActiveCredits(clientRegistrated.getId())).thenReturn(true);
+        when(accountClient.hasActiveAccounts(clientRegistrated.getId())).thenReturn(true);
         //ACT
         registrationService.registerExistingClient(requestClientDto);
         //VERIFY
@@ -4,6 +4,8 @@ import by.afinny.userservice.integration.config.annotation.TestWithPostgresConta
 import by.afinny.userservice.dto.VerificationDto;
 import by.afinny.userservice.entity.Verification;
 import by.afinny.userservice.exception.BlockedReceiverException;
+import by.afinny.userservice.exception.SmsSendingRejectedException;
+import by.afinny.userservice.repository.SmsBlockSendingRepository;
 import by.afinny.userservice.repository.VerificationRepository;
 import by.afinny.userservice.service.SenderService;
 import by.afinny.userservice.service.VerificationService;
@@ -15,6 +17,7 @@ import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessException;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
 
@@ -37,6 +40,8 @@ public class VerificationServiceImplIT {
     private VerificationService verificationService;
     @Autowired
     private VerificationRepository verificationRepository;
+    @Autowired
+    private SmsBlockSendingRepository smsBlockSendingRepository;
     @MockBean
     private SenderService senderService;
 
@@ -52,30 +57,34 @@ public class VerificationServiceImplIT {
     }
 
     @Test
-    @DisplayName("If receiver is too long then rollback transaction")
-    void createAndSendVerificationCode_ifReceiverTooLong_thenRollback() {
+    @DisplayName("If receiver is too long then neither reserve sending nor save verification")
+    void createAndSendVerificationCode_ifReceiverTooLong_thenNothingSaved() {
         String incorrectReceiver = "79033298030239843948220112986343481023";
         //ACT
         ThrowingCallable createAndSaveVerificationCodeMethod =
                 () -> verificationService.createAndSendVerificationCode(incorrectReceiver);
         //VERIFY
-        assertThat(createAndSaveVerificationCodeMethod).isNotNull();
-        assertThat(verificationRepository.findByMobilePhone(RECEIVER)).isEmpty();
+        assertThatThrownBy(createAndSaveVerificationCodeMethod).isInstanceOf(DataAccessException.class);
+        assertThat(smsBlockSendingRepository.findById(incorrectReceiver)).isEmpty();
+        assertThat(verificationRepository.findByMobilePhone(incorrectReceiver)).isEmpty();
     }
 
     @Test
-    @DisplayName("If sender service has failure then rollback transaction and don't save anything")
-    void createAndSendVerificationCode_ifSendingFailed_thenRollback() {
+    @DisplayName("If sms can't be dispatched then release the sending reservation")
+    void createAndSendVerificationCode_ifSendingRejected_thenReleaseReservation() {
         //ARRANGE
-        doThrow(RuntimeException.class)
+        doThrow(SmsSendingRejectedException.getInstance())
                 .when(senderService)
                 .sendMessageToMobilePhone(eq(RECEIVER), anyString());
         //ACT
         ThrowingCallable createAndSendVerificationCodeMethod =
                 () -> verificationService.createAndSendVerificationCode(RECEIVER);
         //VERIFY
-        assertThat(createAndSendVerificationCodeMethod).isNotNull();
-        assertThat(verificationRepository.findByMobilePhone(RECEIVER)).isEmpty();
+        assertThatThrownBy(createAndSendVerificationCodeMethod).isInstanceOf(SmsSendingRejectedException.class);
+        assertThat(smsBlockSendingRepository.findById(RECEIVER)).hasValueSatisfying(smsBlockSending -> {
+            assertThat(smsBlockSending.getSendingCount()).isZero();
+            assertThat(smsBlockSending.getSmsBlockExpiration()).isNull();
+        });
     }
 
     @Test
@@ -0,0 +1,69 @@
+package by.afinny.userservice.unit.affinity;
+
+import by.afinny.userservice.affinity.ConsistentHashRing;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30000;
+    private static final int VIRTUAL_NODES = 128;
+
+    @Test
+    @DisplayName("If keys are spread over members then each member owns a similar share")
+    void owner_shouldSpreadKeysEvenly() {
+        //ARRANGE
+        List<String> members = List.of("node-a", "node-b", "node-c");
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(members, members, VIRTUAL_NODES);
+        Map<String, Integer> owned = new HashMap<>();
+        //ACT
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.owner(phone(i)), 1, Integer::sum);
+        }
+        //VERIFY
+        assertThat(owned).containsOnlyKeys(members);
+        assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 3 * 7 / 10, KEYS / 3 * 13 / 10));
+    }
+
+    @Test
+    @DisplayName("If a member joins then only keys taken over by it change owner")
+    void owner_afterJoin_shouldMoveOnlyKeysOfNewMember() {
+        //ARRANGE
+        List<String> members = List.of("node-a", "node-b", "node-c");
+        List<String> joined = List.of("node-a", "node-b", "node-c", "node-d");
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(members, members, VIRTUAL_NODES);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(joined, joined, VIRTUAL_NODES);
+        int moved = 0;
+        //ACT
+        for (int i = 0; i < KEYS; i++) {
+            String ownerBefore = before.owner(phone(i));
+            String ownerAfter = after.owner(phone(i));
+            if (!ownerBefore.equals(ownerAfter)) {
+                moved++;
+                //VERIFY
+                assertThat(ownerAfter).isEqualTo("node-d");
+            }
+        }
+        assertThat(moved).isBetween(KEYS / 4 * 7 / 10, KEYS / 4 * 13 / 10);
+    }
+
+    @Test
+    @DisplayName("If ring has no members then there is no owner")
+    void owner_ifEmpty_shouldReturnNull() {
+        //ARRANGE
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of(), List.of(), VIRTUAL_NODES);
+        //VERIFY
+        assertThat(ring.isEmpty()).isTrue();
+        assertThat(ring.owner("79023455502")).isNull();
+    }
+
+    private static String phone(int i) {
+        return String.valueOf(79_000_000_000L + i * 7919L);
+    }
+}
@@ -0,0 +1,177 @@
+package by.afinny.userservice.unit.affinity;
+
+import by.afinny.userservice.affinity.PhoneAffinityFilter;
+import by.afinny.userservice.affinity.PhoneAffinityRouter;
+import by.afinny.userservice.controller.VerificationController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PhoneAffinityFilterTest {
+
+    private static final String CHECK_URL =
+            VerificationController.VERIFICATION_URL + VerificationController.CHECK_VERIFICATION_URL;
+    private static final String MOBILE_PHONE = "79023455502";
+    private static final String BODY = "{\"mobilePhone\":\"" + MOBILE_PHONE + "\",\"verificationCode\":\"310761\"}";
+    private static final String FORWARD_SECRET = "forward-secret";
+    private static final String LOCAL_INSTANCE_ID = "user-service-1";
+    private static final ServiceInstance OWNER =
+            new DefaultServiceInstance("user-service-2", "user-service", "10.0.0.2", 8080, false);
+
+    @Mock
+    private PhoneAffinityRouter phoneAffinityRouter;
+    @Mock
+    private HttpClient httpClient;
+
+    @Test
+    @DisplayName("If body is larger than the buffer then reject request without handling it")
+    void doFilter_ifBodyTooLarge_thenRejectRequest() throws Exception {
+        //ARRANGE
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", CHECK_URL);
+        request.setContent(new byte[16 * 1024 + 1]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+        //ACT
+        filter().doFilter(request, response, filterChain);
+        //VERIFY
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        assertThat(filterChain.getRequest()).isNull();
+    }
+
+    @Test
+    @DisplayName("If owner is unknown then pass buffered body on, also to a read listener")
+    void doFilter_ifOwnerUnknown_thenPassBufferedBody() throws Exception {
+        //ARRANGE
+        when(phoneAffinityRouter.findOwner(anyString())).thenReturn(Optional.empty());
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", CHECK_URL);
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        MockFilterChain filterChain = new MockFilterChain();
+        //ACT
+        filter().doFilter(request, new MockHttpServletResponse(), filterChain);
+        //VERIFY
+        ServletInputStream inputStream = ((HttpServletRequest) filterChain.getRequest()).getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] allDataRead = new boolean[1];
+        inputStream.setReadListener(new ReadListener() {
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (inputStream.isReady() && !inputStream.isFinished()) {
+                    read.write(inputStream.read());
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allDataRead[0] = true;
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+        });
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(allDataRead[0]).isTrue();
+    }
+
+    @Test
+    @DisplayName("If a client sets the forwarded header itself then still forward request to the owner")
+    void doFilter_ifForwardedHeaderSpoofed_thenForwardToOwner() throws Exception {
+        //ARRANGE
+        when(phoneAffinityRouter.findOwner(MOBILE_PHONE)).thenReturn(Optional.of(OWNER));
+        when(phoneAffinityRouter.isLocal(OWNER)).thenReturn(false);
+        when(phoneAffinityRouter.getLocalInstanceId()).thenReturn(LOCAL_INSTANCE_ID);
+        stubOwnerResponse();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", CHECK_URL);
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        request.addHeader(PhoneAffinityFilter.FORWARDED_HEADER, LOCAL_INSTANCE_ID);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+        //ACT
+        filter(httpClient).doFilter(request, response, filterChain);
+        //VERIFY
+        assertThat(filterChain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(forwardedRequest().uri().getHost()).isEqualTo(OWNER.getHost());
+    }
+
+    @Test
+    @DisplayName("If another instance forwarded request here then handle it locally")
+    void doFilter_ifForwardedByPeer_thenHandleLocally() throws Exception {
+        //ARRANGE
+        when(phoneAffinityRouter.findOwner(MOBILE_PHONE)).thenReturn(Optional.of(OWNER));
+        when(phoneAffinityRouter.isLocal(OWNER)).thenReturn(false);
+        stubOwnerResponse();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", CHECK_URL);
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        filter(httpClient).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        String signature = forwardedRequest().headers().firstValue(PhoneAffinityFilter.FORWARDED_HEADER).orElseThrow();
+        when(phoneAffinityRouter.getLocalInstanceId()).thenReturn(OWNER.getInstanceId());
+        MockHttpServletRequest peerRequest = new MockHttpServletRequest("POST", CHECK_URL);
+        peerRequest.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        peerRequest.addHeader(PhoneAffinityFilter.FORWARDED_HEADER, signature);
+        MockFilterChain filterChain = new MockFilterChain();
+        //ACT
+        filter(httpClient).doFilter(peerRequest, new MockHttpServletResponse(), filterChain);
+        //VERIFY
+        assertThat(filterChain.getRequest()).isNotNull();
+        verify(httpClient, times(1)).send(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubOwnerResponse() throws Exception {
+        HttpResponse<byte[]> ownerResponse = mock(HttpResponse.class);
+        when(ownerResponse.statusCode()).thenReturn(HttpServletResponse.SC_OK);
+        when(ownerResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        when(ownerResponse.body()).thenReturn(new byte[0]);
+        when(httpClient.send(any(), any())).thenReturn((HttpResponse) ownerResponse);
+    }
+
+    private HttpRequest forwardedRequest() throws Exception {
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).send(captor.capture(), any());
+        return captor.getValue();
+    }
+
+    private PhoneAffinityFilter filter() {
+        return filter(HttpClient.newHttpClient());
+    }
+
+    private PhoneAffinityFilter filter(HttpClient httpClient) {
+        return new PhoneAffinityFilter(phoneAffinityRouter, new ObjectMapper(), httpClient, Duration.ofSeconds(1),
+                FORWARD_SECRET);
+    }
+}
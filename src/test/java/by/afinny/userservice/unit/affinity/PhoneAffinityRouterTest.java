@@ -0,0 +1,155 @@
+package by.afinny.userservice.unit.affinity;
+
+import by.afinny.userservice.affinity.PhoneAffinityRouter;
+import by.afinny.userservice.config.verification.properties.PhoneAffinityProperties;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.cloud.netflix.eureka.EurekaServiceInstance;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PhoneAffinityRouterTest {
+
+    private static final String SERVICE_ID = "user-service";
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+    @Mock
+    private ObjectProvider<Registration> registrationProvider;
+    @Mock
+    private Registration registration;
+
+    private MutableClock clock;
+    private PhoneAffinityRouter phoneAffinityRouter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        PhoneAffinityProperties properties = new PhoneAffinityProperties();
+        properties.setJoinDelay(Duration.ofMinutes(5));
+        when(registrationProvider.getIfAvailable()).thenReturn(registration);
+        when(registration.getServiceId()).thenReturn(SERVICE_ID);
+        lenient().when(registration.getInstanceId()).thenReturn("node-a");
+        phoneAffinityRouter = new PhoneAffinityRouter(discoveryClient, registrationProvider, properties, clock);
+    }
+
+    @Test
+    @DisplayName("If an instance joined recently then don't give it phones until the join delay has passed")
+    void findOwner_shouldIgnoreInstancesBeforeJoinDelay() {
+        //ARRANGE
+        when(discoveryClient.getInstances(SERVICE_ID)).thenReturn(List.of(instance("node-a"), instance("node-b")));
+        phoneAffinityRouter.refresh();
+        clock.advance(Duration.ofMinutes(6));
+        phoneAffinityRouter.refresh();
+        when(discoveryClient.getInstances(SERVICE_ID))
+                .thenReturn(List.of(instance("node-a"), instance("node-b"), instance("node-c")));
+        //ACT
+        phoneAffinityRouter.refresh();
+        //VERIFY
+        assertThat(owners()).containsOnly("node-a", "node-b");
+
+        //ACT
+        clock.advance(Duration.ofMinutes(6));
+        phoneAffinityRouter.refresh();
+        //VERIFY
+        assertThat(owners()).containsOnly("node-a", "node-b", "node-c");
+    }
+
+    @Test
+    @DisplayName("If Eureka reports when instances registered then use it rather than when this node saw them")
+    void findOwner_shouldTakeJoinTimeFromEurekaLease() {
+        //ARRANGE
+        long now = clock.millis();
+        when(discoveryClient.getInstances(SERVICE_ID)).thenReturn(List.of(
+                eurekaInstance("node-a", now - Duration.ofHours(1).toMillis()),
+                eurekaInstance("node-b", now - Duration.ofHours(1).toMillis()),
+                eurekaInstance("node-c", now - Duration.ofMinutes(1).toMillis())));
+        //ACT
+        phoneAffinityRouter.refresh();
+        //VERIFY
+        assertThat(owners()).containsOnly("node-a", "node-b");
+    }
+
+    @Test
+    @DisplayName("If phone is written differently then route it to the same owner")
+    void findOwner_shouldNormalizePhone() {
+        //ARRANGE
+        when(discoveryClient.getInstances(SERVICE_ID))
+                .thenReturn(List.of(instance("node-a"), instance("node-b"), instance("node-c")));
+        phoneAffinityRouter.refresh();
+        //ACT
+        ServiceInstance owner = phoneAffinityRouter.findOwner("79023455502").orElseThrow();
+        //VERIFY
+        assertThat(phoneAffinityRouter.findOwner("+7 (902) 345-55-02")).contains(owner);
+        assertThat(phoneAffinityRouter.isLocal(owner)).isEqualTo(owner.getInstanceId().equals("node-a"));
+    }
+
+    private List<String> owners() {
+        return IntStream.range(0, 3000)
+                .mapToObj(i -> phoneAffinityRouter.findOwner(String.valueOf(79_000_000_000L + i * 7919L)).orElseThrow())
+                .map(ServiceInstance::getInstanceId)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private static ServiceInstance instance(String instanceId) {
+        return new DefaultServiceInstance(instanceId, SERVICE_ID, instanceId, 8080, false);
+    }
+
+    private static ServiceInstance eurekaInstance(String instanceId, long serviceUpTimestamp) {
+        InstanceInfo instanceInfo = InstanceInfo.Builder.newBuilder()
+                .setAppName(SERVICE_ID)
+                .setInstanceId(instanceId)
+                .setHostName(instanceId)
+                .setLeaseInfo(LeaseInfo.Builder.newBuilder().setServiceUpTimestamp(serviceUpTimestamp).build())
+                .build();
+        return new EurekaServiceInstance(instanceInfo);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-10-18T10:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+    }
+}
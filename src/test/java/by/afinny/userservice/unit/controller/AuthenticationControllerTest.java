@@ -6,9 +6,12 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
@@ -18,11 +21,18 @@ import by.afinny.userservice.dto.LoginDto;
 import by.afinny.userservice.exception.BadCredentialsException;
 import by.afinny.userservice.exception.RegistrationException;
 import by.afinny.userservice.exception.handler.ExceptionHandlerController;
+import by.afinny.userservice.security.JwtTokenProvider;
+import by.afinny.userservice.security.JwtVerifier;
+import by.afinny.userservice.security.TokenRevocationIndex;
 import by.afinny.userservice.service.AuthenticationService;
+import by.afinny.userservice.service.TokenRevocationService;
+import by.afinny.userservice.util.constant.JWT;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.time.Clock;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -40,6 +50,8 @@ class AuthenticationControllerTest {
 
     @MockBean
     private AuthenticationService authenticationService;
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
 
     private final UUID CLIENT_ID = UUID.randomUUID();
     private final String MOBILE_PHONE = "79182546634";
@@ -47,12 +59,15 @@ class AuthenticationControllerTest {
     private final UUID USER_ID = UUID.fromString("725764ce-e246-11ec-8fea-0242ac120002");
 
     private MockMvc mockMvc;
+    private JwtVerifier jwtVerifier;
     private LoginDto loginDto;
     private LoginByPinDto loginByPinDto;
 
     @BeforeAll
     public void setUp() {
-        mockMvc = standaloneSetup(new AuthenticationController(authenticationService))
+        jwtVerifier = new JwtVerifier(Clock.systemUTC(), new TokenRevocationIndex());
+        mockMvc = standaloneSetup(new AuthenticationController(authenticationService,
+                        new JwtTokenProvider(Clock.systemUTC()), jwtVerifier, tokenRevocationService))
                 .setControllerAdvice(ExceptionHandlerController.class).build();
 
         loginDto = LoginDto.builder()
@@ -69,14 +84,58 @@ class AuthenticationControllerTest {
     @DisplayName("If user authenticated successfully then return client id and status OK")
     void authenticateUser_shouldReturnClientId() throws Exception {
         //ARRANGE
-        when(authenticationService.getCredentials(any(LoginDto.class))).thenReturn(CLIENT_ID);
+        when(authenticationService.getCredentialsAsync(any(LoginDto.class), any()))
+                .thenReturn(CompletableFuture.completedFuture(CLIENT_ID));
         //ACT & VERIFY
-        MvcResult result = mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL)
+        MvcResult asyncResult = mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(loginDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+        verifyBody(asJsonString(CLIENT_ID), result.getResponse().getContentAsString());
+        verifyTokens(result, CLIENT_ID);
+    }
+
+    @Test
+    @DisplayName("If refresh token is valid then return new tokens and status OK")
+    void refreshTokens_shouldReturnNewTokens() throws Exception {
+        //ARRANGE
+        String refreshToken = new JwtTokenProvider(Clock.systemUTC()).createTokens(CLIENT_ID).getRefreshToken();
+        //ACT
+        MvcResult result = mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL + AuthenticationController.URL_REFRESH)
+                        .header(JWT.REFRESH_HEADER.getValue(), refreshToken))
                 .andExpect(status().isOk())
                 .andReturn();
+        //VERIFY
         verifyBody(asJsonString(CLIENT_ID), result.getResponse().getContentAsString());
+        verifyTokens(result, CLIENT_ID);
+    }
+
+    @Test
+    @DisplayName("If access token is used for refresh then return status UNAUTHORIZED")
+    void refreshTokens_ifAccessTokenGiven_thenReturnStatusUnauthorized() throws Exception {
+        //ARRANGE
+        String accessToken = new JwtTokenProvider(Clock.systemUTC()).createTokens(CLIENT_ID).getAccessToken();
+        //ACT & VERIFY
+        mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL + AuthenticationController.URL_REFRESH)
+                        .header(JWT.REFRESH_HEADER.getValue(), accessToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("If access token is valid then revoke client tokens on logout")
+    void logout_shouldRevokeTokens() throws Exception {
+        //ARRANGE
+        String accessToken = new JwtTokenProvider(Clock.systemUTC()).createTokens(CLIENT_ID).getAccessToken();
+        //ACT
+        mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL + AuthenticationController.URL_LOGOUT)
+                        .header(JWT.HEADER.getValue(), JWT.TOKEN_PREFIX.getValue() + accessToken))
+                .andExpect(status().isOk());
+        //VERIFY
+        verify(tokenRevocationService).revokeTokens(CLIENT_ID);
     }
 
     @Test
@@ -84,11 +143,15 @@ class AuthenticationControllerTest {
     void authenticateUser_ifAuthenticationFailed_thenReturnStatusUnauthorized() throws Exception {
         //ARRANGE
         BadCredentialsException badCredentialsException = new BadCredentialsException("401", "Invalid Password");
-        when(authenticationService.getCredentials(any(LoginDto.class))).thenThrow(badCredentialsException);
+        when(authenticationService.getCredentialsAsync(any(LoginDto.class), any()))
+                .thenReturn(CompletableFuture.failedFuture(badCredentialsException));
         //ACT & VERIFY
-        mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL)
+        MvcResult asyncResult = mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(loginDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isUnauthorized());
     }
 
@@ -123,11 +186,15 @@ class AuthenticationControllerTest {
     @DisplayName("If user authenticated successfully then return client id and status OK")
     void authenticateUserByPin_shouldReturnClientId() throws Exception {
         //ARRANGE
-        when(authenticationService.checkFingerprintForLoginById(any(LoginByPinDto.class))).thenReturn(USER_ID);
+        when(authenticationService.checkFingerprintForLoginByIdAsync(any(LoginByPinDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(USER_ID));
         //ACT & VERIFY
-        MvcResult result = mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL + AuthenticationController.URL_PIN)
+        MvcResult asyncResult = mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL + AuthenticationController.URL_PIN)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(loginByPinDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andReturn();
         verifyBody(asJsonString(USER_ID), result.getResponse().getContentAsString());
@@ -138,11 +205,15 @@ class AuthenticationControllerTest {
     void authenticateUserByPin_ifAuthenticationFailed_thenReturnStatusUnauthorized() throws Exception {
         //ARRANGE
         BadCredentialsException badCredentialsException = new BadCredentialsException("401", "Invalid Password");
-        when(authenticationService.checkFingerprintForLoginById(any(LoginByPinDto.class))).thenThrow(badCredentialsException);
+        when(authenticationService.checkFingerprintForLoginByIdAsync(any(LoginByPinDto.class)))
+                .thenReturn(CompletableFuture.failedFuture(badCredentialsException));
         //ACT & VERIFY
-        mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL + AuthenticationController.URL_PIN)
+        MvcResult asyncResult = mockMvc.perform(post(AuthenticationController.AUTHENTICATION_URL + AuthenticationController.URL_PIN)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(asJsonString(loginByPinDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isUnauthorized());
     }
 
@@ -161,6 +232,14 @@ class AuthenticationControllerTest {
         return new ObjectMapper().writeValueAsString(obj);
     }
 
+    private void verifyTokens(MvcResult result, UUID clientId) {
+        String authorization = result.getResponse().getHeader(JWT.HEADER.getValue());
+        String refreshToken = result.getResponse().getHeader(JWT.REFRESH_HEADER.getValue());
+        assertThat(authorization).startsWith(JWT.TOKEN_PREFIX.getValue());
+        assertThat(jwtVerifier.verifyAccessToken(authorization, JWT.TOKEN_PREFIX.getValue().length())).isEqualTo(clientId);
+        assertThat(jwtVerifier.verifyRefreshToken(refreshToken)).isEqualTo(clientId);
+    }
+
     private void verifyBody(String expectedBody, String actualBody) {
         assertThat(actualBody).isEqualTo(expectedBody);
     }
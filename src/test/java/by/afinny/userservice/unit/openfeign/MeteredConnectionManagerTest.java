@@ -0,0 +1,126 @@
+package by.afinny.userservice.unit.openfeign;
+
+import by.afinny.userservice.config.feign.FeignTransportConfig;
+import by.afinny.userservice.config.feign.properties.FeignTransportProperties;
+import by.afinny.userservice.openfeign.MeteredConnectionManager;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+class MeteredConnectionManagerTest {
+
+    private static final byte[] BODY = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private final FeignTransportConfig feignTransportConfig = new FeignTransportConfig();
+    private SimpleMeterRegistry meterRegistry;
+    private HttpServer server;
+    private String url;
+    private MeteredConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(BODY);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("If requests follow each other then reuse the kept alive connection")
+    void execute_shouldReuseConnection() throws IOException {
+        //ARRANGE
+        createHttpClient(new FeignTransportProperties());
+        //ACT
+        get();
+        get();
+        //VERIFY
+        assertSoftly(softly -> {
+            softly.assertThat(timerCount("feign.pool.connect", "connected")).isEqualTo(1);
+            softly.assertThat(timerCount("feign.pool.lease", "leased")).isEqualTo(2);
+            softly.assertThat(gauge("feign.pool.connections", "state", "available")).isEqualTo(1);
+            softly.assertThat(gauge("feign.pool.connections", "state", "leased")).isZero();
+        });
+    }
+
+    @Test
+    @DisplayName("If the route pool is exhausted then time out the lease")
+    void execute_shouldTimeOutLease_whenRoutePoolIsExhausted() throws IOException {
+        //ARRANGE
+        FeignTransportProperties properties = new FeignTransportProperties();
+        FeignTransportProperties.Route route = new FeignTransportProperties.Route();
+        route.setUrl(url);
+        route.setMaxConnections(1);
+        properties.setRoutes(List.of(route));
+        properties.setConnectionRequestTimeout(Duration.ofMillis(50));
+        createHttpClient(properties);
+        //ACT
+        try (CloseableHttpResponse unconsumed = httpClient.execute(new HttpGet(url))) {
+            //VERIFY
+            assertThatThrownBy(this::get).isInstanceOf(ConnectionRequestTimeoutException.class);
+            assertSoftly(softly -> {
+                softly.assertThat(connectionManager.getMaxPerRoute(
+                        new HttpRoute(new HttpHost("http", "127.0.0.1", server.getAddress().getPort()))))
+                        .isEqualTo(1);
+                softly.assertThat(timerCount("feign.pool.lease", "timeout")).isEqualTo(1);
+                softly.assertThat(gauge("feign.pool.connections", "state", "leased")).isEqualTo(1);
+            });
+        }
+    }
+
+    private void createHttpClient(FeignTransportProperties properties) {
+        connectionManager = feignTransportConfig.feignConnectionManager(properties, meterRegistry);
+        httpClient = feignTransportConfig.feignHttpClient(connectionManager, properties);
+    }
+
+    private void get() throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(new HttpGet(url))) {
+            EntityUtils.consume(response.getEntity());
+        }
+    }
+
+    private long timerCount(String name, String outcome) {
+        return meterRegistry.get(name)
+                .tag("route", "127.0.0.1:" + server.getAddress().getPort())
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    private double gauge(String name, String tagKey, String tagValue) {
+        return meterRegistry.get(name).tag(tagKey, tagValue).gauge().value();
+    }
+}
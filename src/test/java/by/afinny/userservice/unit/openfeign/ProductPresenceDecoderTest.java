@@ -0,0 +1,115 @@
+package by.afinny.userservice.unit.openfeign;
+
+import by.afinny.userservice.openfeign.ProductPresenceDecoder;
+import com.fasterxml.jackson.core.JsonFactory;
+import feign.Request;
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPresenceDecoderTest {
+
+    private static final Request REQUEST = Request.create(Request.HttpMethod.GET, "http://CREDIT/auth/credits",
+            Map.of(), null, StandardCharsets.UTF_8, null);
+
+    @Mock
+    private Decoder delegate;
+
+    private ProductPresenceDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new ProductPresenceDecoder(new JsonFactory(), delegate);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "[]|false",
+            "  [ ]  |false",
+            "[{\"creditId\":\"1\"}]|true",
+            "[{\"creditId\":\"1\"},{\"creditId\":\"2\"}]|true",
+            "null|true"})
+    @DisplayName("If the body is an array of products then tell whether it has any")
+    void decode_shouldTellWhetherArrayHasElements(String body, boolean expected) throws IOException {
+        //ACT
+        Object hasProducts = decoder.decode(response(body), boolean.class);
+        //VERIFY
+        assertThat(hasProducts).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("If the array has a first element then don't read the rest of it")
+    void decode_shouldStopAtFirstElement() throws IOException {
+        //ARRANGE
+        String body = "[{\"creditId\":\"1\"}, this part is never parsed";
+        //ACT
+        Object hasProducts = decoder.decode(response(body), Boolean.class);
+        //VERIFY
+        assertThat(hasProducts).isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("If there is no body then count it as having products")
+    void decode_ifNoBody_thenTrue() throws IOException {
+        //ARRANGE
+        Response response = Response.builder().status(200).request(REQUEST).headers(Map.of()).build();
+        //ACT
+        Object hasProducts = decoder.decode(response, boolean.class);
+        //VERIFY
+        assertThat(hasProducts).isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("If the body isn't an array then throw DecodeException")
+    void decode_ifNotArray_thenThrow() {
+        //ACT & VERIFY
+        assertThatThrownBy(() -> decoder.decode(response("{\"creditId\":\"1\"}"), boolean.class))
+                .isInstanceOf(DecodeException.class);
+    }
+
+    @Test
+    @DisplayName("If the result isn't boolean then leave decoding to the delegate")
+    void decode_ifNotBoolean_thenDelegate() throws IOException {
+        //ARRANGE
+        Response response = response("[]");
+        Type type = List.class;
+        when(delegate.decode(response, type)).thenReturn(List.of());
+        //ACT
+        Object products = decoder.decode(response, type);
+        //VERIFY
+        assertThat(products).isEqualTo(List.of());
+        verify(delegate).decode(response, type);
+    }
+
+    private static Response response(String body) {
+        InputStream content = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        return Response.builder()
+                .status(200)
+                .request(REQUEST)
+                .headers(Map.of())
+                .body(content, body.length())
+                .build();
+    }
+}
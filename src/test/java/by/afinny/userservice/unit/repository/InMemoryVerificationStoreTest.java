@@ -0,0 +1,216 @@
+package by.afinny.userservice.unit.repository;
+
+import by.afinny.userservice.config.verification.properties.OtpStatisticsProperties;
+import by.afinny.userservice.config.verification.properties.VerificationStoreProperties;
+import by.afinny.userservice.entity.Verification;
+import by.afinny.userservice.repository.verification.InMemoryVerificationStore;
+import by.afinny.userservice.repository.verification.SmsSendingReservation;
+import by.afinny.userservice.repository.verification.VerificationCheckOutcome;
+import by.afinny.userservice.repository.verification.VerificationCheckResult;
+import by.afinny.userservice.statistics.OtpStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryVerificationStoreTest {
+
+    private static final String MOBILE_PHONE = "79182546634";
+    private static final String CODE = "123456";
+
+    private MutableClock clock;
+    private InMemoryVerificationStore verificationStore;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        VerificationStoreProperties properties = new VerificationStoreProperties();
+        properties.setRetention(Duration.ofMinutes(5));
+        verificationStore = new InMemoryVerificationStore(properties, clock,
+                new OtpStatistics(new OtpStatisticsProperties(), new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        verificationStore.destroy();
+    }
+
+    @Test
+    @DisplayName("If verification was saved then return a copy not affected by later changes")
+    void saveVerification_shouldStoreCopy() {
+        //ARRANGE
+        Verification verification = Verification.builder()
+                .mobilePhone(MOBILE_PHONE)
+                .verificationCode("123456")
+                .codeExpiration(now().plusMinutes(15))
+                .wrongAttemptsCounter(0)
+                .build();
+        //ACT
+        verificationStore.saveVerification(verification);
+        verification.setWrongAttemptsCounter(3);
+        //VERIFY
+        assertThat(verificationStore.findVerification(MOBILE_PHONE)).hasValueSatisfying(found -> {
+            assertThat(found).isNotSameAs(verification);
+            assertThat(found.getVerificationCode()).isEqualTo("123456");
+            assertThat(found.getWrongAttemptsCounter()).isZero();
+        });
+    }
+
+    @Test
+    @DisplayName("If latest expiration plus retention has passed then treat entry as absent")
+    void findVerification_afterRetention_shouldReturnEmpty() {
+        //ARRANGE
+        verificationStore.saveVerification(Verification.builder()
+                .mobilePhone(MOBILE_PHONE)
+                .codeExpiration(now().plusMinutes(15))
+                .userBlockExpiration(now().plusMinutes(20))
+                .wrongAttemptsCounter(0)
+                .build());
+        //ACT
+        clock.advance(Duration.ofMinutes(24));
+        boolean presentBeforeDeadline = verificationStore.findVerification(MOBILE_PHONE).isPresent();
+        clock.advance(Duration.ofMinutes(2));
+        //VERIFY
+        assertThat(presentBeforeDeadline).isTrue();
+        assertThat(verificationStore.findVerification(MOBILE_PHONE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("If verification was deleted then keep sms block of the same phone")
+    void deleteVerification_shouldKeepSmsBlock() {
+        //ARRANGE
+        Verification verification = Verification.builder()
+                .mobilePhone(MOBILE_PHONE)
+                .wrongAttemptsCounter(0)
+                .build();
+        verificationStore.saveVerification(verification);
+        verificationStore.reserveSmsSending(MOBILE_PHONE);
+        //ACT
+        verificationStore.deleteVerification(verification);
+        //VERIFY
+        assertThat(verificationStore.findVerification(MOBILE_PHONE)).isEmpty();
+        assertThat(verificationStore.reserveSmsSending(MOBILE_PHONE).isGranted()).isFalse();
+        assertThat(verificationStore.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("If sms block has passed then grant sending with doubled block, otherwise report remaining seconds")
+    void reserveSmsSending_shouldApplyExponentialBlock() {
+        //ACT
+        SmsSendingReservation first = verificationStore.reserveSmsSending(MOBILE_PHONE);
+        clock.advance(Duration.ofSeconds(10));
+        SmsSendingReservation blocked = verificationStore.reserveSmsSending(MOBILE_PHONE);
+        clock.advance(Duration.ofSeconds(20));
+        SmsSendingReservation second = verificationStore.reserveSmsSending(MOBILE_PHONE);
+        //VERIFY
+        assertThat(first.isGranted()).isTrue();
+        assertThat(first.getSendingCount()).isEqualTo(1);
+        assertThat(first.getRemainingSeconds()).isEqualTo(31);
+        assertThat(blocked.isGranted()).isFalse();
+        assertThat(blocked.getSendingCount()).isEqualTo(1);
+        assertThat(blocked.getRemainingSeconds()).isEqualTo(21);
+        assertThat(second.isGranted()).isTrue();
+        assertThat(second.getSendingCount()).isEqualTo(2);
+        assertThat(second.getRemainingSeconds()).isEqualTo(61);
+    }
+
+    @Test
+    @DisplayName("If granted sending is released then grant the next one right away with the same block")
+    void releaseSmsSending_shouldRestorePreviousSendingCount() {
+        //ARRANGE
+        SmsSendingReservation first = verificationStore.reserveSmsSending(MOBILE_PHONE);
+        clock.advance(Duration.ofSeconds(31));
+        SmsSendingReservation unsent = verificationStore.reserveSmsSending(MOBILE_PHONE);
+        //ACT
+        verificationStore.releaseSmsSending(MOBILE_PHONE, unsent);
+        SmsSendingReservation retried = verificationStore.reserveSmsSending(MOBILE_PHONE);
+        verificationStore.releaseSmsSending(MOBILE_PHONE, first);
+        //VERIFY
+        assertThat(retried.isGranted()).isTrue();
+        assertThat(retried.getSendingCount()).isEqualTo(2);
+        assertThat(retried.getRemainingSeconds()).isEqualTo(61);
+        assertThat(verificationStore.reserveSmsSending(MOBILE_PHONE).isGranted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("If wrong codes are entered then count them, block on the attempt after the last and reset the counter")
+    void checkVerification_withWrongCodes_shouldBlockAfterMaxAttempts() {
+        //ARRANGE
+        saveVerification(now().plusMinutes(15), 0);
+        //ACT
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertThat(verificationStore.checkVerification(MOBILE_PHONE, "000000").getOutcome())
+                    .isEqualTo(VerificationCheckOutcome.INVALID);
+        }
+        VerificationCheckResult blockedNow = verificationStore.checkVerification(MOBILE_PHONE, CODE);
+        VerificationCheckResult blocked = verificationStore.checkVerification(MOBILE_PHONE, CODE);
+        //VERIFY
+        assertThat(blockedNow.getOutcome()).isEqualTo(VerificationCheckOutcome.BLOCKED_NOW);
+        assertThat(blockedNow.getBlockSeconds()).isEqualTo(601);
+        assertThat(blocked.getOutcome()).isEqualTo(VerificationCheckOutcome.BLOCKED);
+        assertThat(verificationStore.findVerification(MOBILE_PHONE))
+                .hasValueSatisfying(found -> assertThat(found.getWrongAttemptsCounter()).isZero());
+    }
+
+    @Test
+    @DisplayName("If code matches then delete verification, unless it has expired")
+    void checkVerification_withCorrectCode_shouldDeleteUnlessExpired() {
+        //ARRANGE
+        saveVerification(now().minusMinutes(1), 0);
+        //ACT
+        VerificationCheckResult expired = verificationStore.checkVerification(MOBILE_PHONE, CODE);
+        saveVerification(now().plusMinutes(15), 2);
+        VerificationCheckResult valid = verificationStore.checkVerification(MOBILE_PHONE, CODE);
+        //VERIFY
+        assertThat(expired.getOutcome()).isEqualTo(VerificationCheckOutcome.EXPIRED);
+        assertThat(valid.getOutcome()).isEqualTo(VerificationCheckOutcome.VALID);
+        assertThat(verificationStore.checkVerification(MOBILE_PHONE, CODE).getOutcome())
+                .isEqualTo(VerificationCheckOutcome.NOT_FOUND);
+    }
+
+    private void saveVerification(LocalDateTime codeExpiration, int wrongAttemptsCounter) {
+        verificationStore.saveVerification(Verification.builder()
+                .mobilePhone(MOBILE_PHONE)
+                .verificationCode(CODE)
+                .codeExpiration(codeExpiration)
+                .wrongAttemptsCounter(wrongAttemptsCounter)
+                .build());
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.ofInstant(clock.instant(), ZoneId.systemDefault());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-10-18T10:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package by.afinny.userservice.unit.repository;
+
+import by.afinny.userservice.repository.verification.TimingWheel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private final TimingWheel<String> timingWheel = new TimingWheel<>(1000, 8, 0);
+
+    @Test
+    @DisplayName("If deadlines have passed then expire only those entries, including ones a full turn ahead later")
+    void advance_shouldExpireOnlyPassedDeadlines() {
+        //ARRANGE
+        List<String> expired = new ArrayList<>();
+        timingWheel.schedule("first", 2500);
+        timingWheel.schedule("second", 5000);
+        timingWheel.schedule("nextTurn", 2500 + 8000);
+        //ACT
+        timingWheel.advance(3000, expired::add);
+        //VERIFY
+        assertThat(expired).containsExactly("first");
+
+        //ACT
+        timingWheel.advance(11000, expired::add);
+        //VERIFY
+        assertThat(expired).containsExactly("first", "second", "nextTurn");
+    }
+
+    @Test
+    @DisplayName("If entry was cancelled then never expire it")
+    void cancel_shouldRemoveEntry() {
+        //ARRANGE
+        List<String> expired = new ArrayList<>();
+        TimingWheel.Node<String> node = timingWheel.schedule("cancelled", 1000);
+        timingWheel.schedule("kept", 1000);
+        //ACT
+        timingWheel.cancel(node);
+        timingWheel.cancel(node);
+        timingWheel.advance(100_000, expired::add);
+        //VERIFY
+        assertThat(expired).containsExactly("kept");
+    }
+}
@@ -15,6 +15,7 @@ import java.util.UUID;
 import by.afinny.userservice.repository.ClientRepository;
 import by.afinny.userservice.repository.PassportDataRepository;
 import by.afinny.userservice.repository.UserProfileRepository;
+import by.afinny.userservice.repository.projection.LoginCredentials;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -158,6 +159,64 @@ class UserProfileRepositoryTest {
         verifyUserProfile(foundUserProfile);
     }
 
+    @Test
+    @DisplayName("If user profile with client with this mobile phone exists then return login credentials")
+    void findCredentialsByMobilePhone_ifUserProfileExists_thenReturnCredentials() {
+        //ARRANGE
+        passportDataRepository.save(passportData);
+        UserProfile savedUserProfile = userProfileRepository.save(userProfile);
+        //ACT
+        LoginCredentials credentials = userProfileRepository.findCredentialsByMobilePhone(MOBILE_PHONE)
+            .orElseThrow(() -> new EntityNotFoundException("Credentials with mobile phone " + MOBILE_PHONE + " weren't found"));
+        //VERIFY
+        verifyCredentials(credentials, savedUserProfile);
+    }
+
+    @Test
+    @DisplayName("If user profile with this passport number exists then return login credentials")
+    void findCredentialsByPassportNumber_ifUserProfileExists_thenReturnCredentials() {
+        //ARRANGE
+        passportDataRepository.save(passportData);
+        UserProfile savedUserProfile = userProfileRepository.save(userProfile);
+        //ACT
+        LoginCredentials credentials = userProfileRepository.findCredentialsByPassportNumber(PASSPORT_NUMBER)
+            .orElseThrow(() -> new EntityNotFoundException("Credentials with passport number " + PASSPORT_NUMBER + " weren't found"));
+        //VERIFY
+        verifyCredentials(credentials, savedUserProfile);
+    }
+
+    @Test
+    @DisplayName("If user profile with client with this mobile phone doesn't exist then return empty credentials")
+    void findCredentialsByMobilePhone_ifUserProfileNotExists_thenReturnEmpty() {
+        //ACT
+        Optional<LoginCredentials> credentials = userProfileRepository.findCredentialsByMobilePhone(MOBILE_PHONE);
+        //VERIFY
+        assertThat(credentials).isEmpty();
+    }
+
+    @Test
+    @DisplayName("If password updated then user profile has new password")
+    void updatePassword_shouldUpdatePassword() {
+        //ARRANGE
+        passportDataRepository.save(passportData);
+        UserProfile savedUserProfile = userProfileRepository.save(userProfile);
+        //ACT
+        int updatedRows = userProfileRepository.updatePassword(savedUserProfile.getId(), "new_password");
+        //VERIFY
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(userProfileRepository.findById(savedUserProfile.getId()))
+            .hasValueSatisfying(foundUserProfile -> assertThat(foundUserProfile.getPassword()).isEqualTo("new_password"));
+    }
+
+    private void verifyCredentials(LoginCredentials credentials, UserProfile savedUserProfile) {
+        assertSoftly(softAssertions -> {
+            softAssertions.assertThat(credentials.getClientId()).isEqualTo(savedUserProfile.getClient().getId());
+            softAssertions.assertThat(credentials.getUserProfileId()).isEqualTo(savedUserProfile.getId());
+            softAssertions.assertThat(credentials.getPassword()).isEqualTo(userProfile.getPassword());
+            softAssertions.assertThat(credentials.getClientStatus()).isEqualTo(ClientStatus.CLOSED);
+        });
+    }
+
     private void verifyUserProfile(UserProfile foundUserProfile) {
         assertSoftly(softAssertions -> {
             softAssertions.assertThat(foundUserProfile.getId()).isEqualTo(userProfile.getId());
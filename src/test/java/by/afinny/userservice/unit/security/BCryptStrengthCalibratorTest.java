@@ -0,0 +1,39 @@
+package by.afinny.userservice.unit.security;
+
+import by.afinny.userservice.security.BCryptStrengthCalibrator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BCryptStrengthCalibratorTest {
+
+    @Test
+    @DisplayName("If target hash time is below the minimal cost then return minimal strength")
+    void calibrate_ifTargetTooLow_thenReturnMinStrength() {
+        //ACT
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofNanos(1), 4, 12);
+        //VERIFY
+        assertThat(strength).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("If target hash time is huge then don't exceed maximal strength")
+    void calibrate_ifTargetHuge_thenReturnMaxStrength() {
+        //ACT
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofDays(1), 4, 8);
+        //VERIFY
+        assertThat(strength).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("If target hash time is below the minimal cost then never go below minimal strength")
+    void calibrate_ifTargetTooLow_thenNotBelowMinStrength() {
+        //ACT
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofNanos(1), 12, 16);
+        //VERIFY
+        assertThat(strength).isEqualTo(12);
+    }
+}
@@ -0,0 +1,103 @@
+package by.afinny.userservice.unit.security;
+
+import by.afinny.userservice.config.security.properties.PasswordHashingProperties;
+import by.afinny.userservice.exception.PasswordHashingRejectedException;
+import by.afinny.userservice.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final String RAW_PASSWORD = "password";
+    private final String ENCODED_PASSWORD = "encoded";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private MeterRegistry meterRegistry;
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setPoolSize(1);
+        properties.setQueueCapacity(1);
+        properties.setRetryAfterSeconds(3);
+        meterRegistry = new SimpleMeterRegistry();
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(), properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    @DisplayName("If pool is free then delegate hashing and record hash time")
+    void encode_shouldDelegateAndRecordMetrics() {
+        //ARRANGE
+        release.countDown();
+        //ACT
+        String encoded = passwordEncoder.encode(RAW_PASSWORD);
+        boolean matches = passwordEncoder.matches(RAW_PASSWORD, encoded);
+        //VERIFY
+        assertThat(encoded).isEqualTo(ENCODED_PASSWORD);
+        assertThat(matches).isTrue();
+        assertThat(meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("password.hashing.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("If queue is full then reject at once with retry after")
+    void encodeAsync_ifQueueIsFull_thenThrow() {
+        //ARRANGE
+        CompletableFuture<String> running = passwordEncoder.encodeAsync(RAW_PASSWORD);
+        CompletableFuture<String> queued = passwordEncoder.encodeAsync(RAW_PASSWORD);
+        //ACT
+        ThrowingCallable encodeMethod = () -> passwordEncoder.encodeAsync(RAW_PASSWORD);
+        //VERIFY
+        assertThatThrownBy(encodeMethod)
+                .isInstanceOf(PasswordHashingRejectedException.class)
+                .hasFieldOrPropertyWithValue("retryAfterSeconds", 3L);
+        assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+        release.countDown();
+        assertThat(running.join()).isEqualTo(ENCODED_PASSWORD);
+        assertThat(queued.join()).isEqualTo(ENCODED_PASSWORD);
+    }
+
+    private class BlockingPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            awaitRelease();
+            return ENCODED_PASSWORD;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            awaitRelease();
+            return ENCODED_PASSWORD.equals(encodedPassword);
+        }
+
+        private void awaitRelease() {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package by.afinny.userservice.unit.security;
+
+import by.afinny.userservice.config.security.properties.FingerprintIndexProperties;
+import by.afinny.userservice.security.FingerprintIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FingerprintIndexTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("If fingerprints were put then find them after the table grows")
+    void contains_afterResize_shouldFindAllFingerprints() {
+        //ARRANGE
+        FingerprintIndex index = new FingerprintIndex(new FingerprintIndexProperties(), meterRegistry);
+        UUID[] clientIds = new UUID[5000];
+        for (int i = 0; i < clientIds.length; i++) {
+            clientIds[i] = UUID.randomUUID();
+            index.put(clientIds[i], "fingerprint-" + i);
+        }
+        index.put(clientIds[0], "second-device");
+        //VERIFY
+        for (int i = 0; i < clientIds.length; i++) {
+            assertThat(index.contains(clientIds[i], "fingerprint-" + i)).isTrue();
+        }
+        assertThat(index.contains(clientIds[0], "second-device")).isTrue();
+        assertThat(index.contains(clientIds[1], "second-device")).isFalse();
+        assertThat(index.contains(UUID.randomUUID(), "fingerprint-0")).isFalse();
+        assertThat(index.size()).isEqualTo(clientIds.length);
+        assertThat(meterRegistry.get("fingerprint.index.lookups").tag("result", "miss").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("If index is full then ignore new clients")
+    void put_ifMaxClientsReached_thenIgnoreNewClients() {
+        //ARRANGE
+        FingerprintIndexProperties properties = new FingerprintIndexProperties();
+        properties.setMaxClients(2);
+        FingerprintIndex index = new FingerprintIndex(properties, meterRegistry);
+        UUID overflow = UUID.randomUUID();
+        //ACT
+        index.put(UUID.randomUUID(), "fingerprint");
+        index.put(UUID.randomUUID(), "fingerprint");
+        index.put(overflow, "fingerprint");
+        //VERIFY
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.contains(overflow, "fingerprint")).isFalse();
+    }
+}
@@ -0,0 +1,81 @@
+package by.afinny.userservice.unit.security;
+
+import by.afinny.userservice.config.security.properties.JwtProperties;
+import by.afinny.userservice.security.JwtAuthenticationInterceptor;
+import by.afinny.userservice.security.JwtTokenProvider;
+import by.afinny.userservice.security.JwtVerifier;
+import by.afinny.userservice.security.TokenRevocationIndex;
+import by.afinny.userservice.util.constant.JWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationInterceptorTest {
+
+    private final UUID CLIENT_ID = UUID.fromString("4acf5c23-d7aa-4924-974d-a7284c289317");
+    private final UUID OTHER_CLIENT_ID = UUID.fromString("9b1deb4d-3b7d-4bad-9bdd-2b0d7b3dcb6d");
+
+    private JwtAuthenticationInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setEnforce(true);
+        interceptor = new JwtAuthenticationInterceptor(
+                new JwtVerifier(Clock.systemUTC(), new TokenRevocationIndex()), jwtProperties);
+        String accessToken = new JwtTokenProvider(Clock.systemUTC()).createTokens(CLIENT_ID).getAccessToken();
+        request = new MockHttpServletRequest();
+        request.addHeader(JWT.HEADER.getValue(), "Bearer " + accessToken);
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("If another client is asked for in the path then refuse the request")
+    void preHandle_ifOtherClientInPath_thenForbidden() {
+        //ARRANGE
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+                Map.of("clientId", OTHER_CLIENT_ID.toString()));
+        //ACT
+        boolean handled = interceptor.preHandle(request, response, new Object());
+        //VERIFY
+        assertThat(handled).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.FORBIDDEN.value());
+    }
+
+    @Test
+    @DisplayName("If another client is asked for in the query then refuse the request")
+    void preHandle_ifOtherClientInQuery_thenForbidden() {
+        //ARRANGE
+        request.setParameter("clientId", OTHER_CLIENT_ID.toString());
+        //ACT
+        boolean handled = interceptor.preHandle(request, response, new Object());
+        //VERIFY
+        assertThat(handled).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.FORBIDDEN.value());
+    }
+
+    @Test
+    @DisplayName("If the token's own client is asked for then let the request through")
+    void preHandle_ifOwnClient_thenHandle() {
+        //ARRANGE
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("clientId", CLIENT_ID.toString()));
+        request.setParameter("clientId", CLIENT_ID.toString());
+        //ACT
+        boolean handled = interceptor.preHandle(request, response, new Object());
+        //VERIFY
+        assertThat(handled).isTrue();
+        assertThat(request.getAttribute(JwtAuthenticationInterceptor.CLIENT_ID_ATTRIBUTE)).isEqualTo(CLIENT_ID);
+    }
+}
@@ -0,0 +1,91 @@
+package by.afinny.userservice.unit.security;
+
+import by.afinny.userservice.dto.JwtDto;
+import by.afinny.userservice.security.JwtTokenProvider;
+import by.afinny.userservice.security.JwtVerifier;
+import by.afinny.userservice.security.TokenRevocationIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtVerifierTest {
+
+    private final UUID CLIENT_ID = UUID.fromString("4acf5c23-d7aa-4924-974d-a7284c289317");
+    private final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(Clock.fixed(NOW, ZoneOffset.UTC));
+    private final TokenRevocationIndex tokenRevocationIndex = new TokenRevocationIndex();
+    private final JwtVerifier jwtVerifier = new JwtVerifier(Clock.fixed(NOW, ZoneOffset.UTC), tokenRevocationIndex);
+
+    @Test
+    @DisplayName("If tokens were issued by provider then verify their subject and type")
+    void verify_ifIssuedTokens_thenReturnClientId() {
+        //ARRANGE
+        JwtDto tokens = jwtTokenProvider.createTokens(CLIENT_ID);
+        //ACT & VERIFY
+        assertThat(jwtVerifier.verifyAccessToken(tokens.getAccessToken(), 0)).isEqualTo(CLIENT_ID);
+        assertThat(jwtVerifier.verifyAccessToken("Bearer " + tokens.getAccessToken(), 7)).isEqualTo(CLIENT_ID);
+        assertThat(jwtVerifier.verifyRefreshToken(tokens.getRefreshToken())).isEqualTo(CLIENT_ID);
+        assertThat(jwtVerifier.verifyRefreshToken(tokens.getAccessToken())).isNull();
+        assertThat(jwtVerifier.verifyAccessToken(tokens.getRefreshToken(), 0)).isNull();
+    }
+
+    @Test
+    @DisplayName("If token was tampered with then reject it")
+    void verify_ifTokenTampered_thenReturnNull() {
+        //ARRANGE
+        String accessToken = jwtTokenProvider.createTokens(CLIENT_ID).getAccessToken();
+        String[] parts = accessToken.split("\\.");
+        String forgedPayload = jwtTokenProvider.createTokens(UUID.randomUUID()).getAccessToken().split("\\.")[1];
+        //ACT & VERIFY
+        assertThat(jwtVerifier.verifyAccessToken(parts[0] + "." + forgedPayload + "." + parts[2], 0)).isNull();
+        assertThat(jwtVerifier.verifyAccessToken(parts[0] + "." + parts[1] + ".", 0)).isNull();
+        assertThat(jwtVerifier.verifyAccessToken(parts[0] + "." + parts[1], 0)).isNull();
+        assertThat(jwtVerifier.verifyAccessToken("not a token", 0)).isNull();
+    }
+
+    @Test
+    @DisplayName("If token expired then reject it")
+    void verify_ifTokenExpired_thenReturnNull() {
+        //ARRANGE
+        String accessToken = jwtTokenProvider.createTokens(CLIENT_ID).getAccessToken();
+        JwtVerifier laterVerifier = new JwtVerifier(Clock.fixed(NOW.plus(Duration.ofHours(1)), ZoneOffset.UTC),
+                tokenRevocationIndex);
+        //ACT & VERIFY
+        assertThat(laterVerifier.verifyAccessToken(accessToken, 0)).isNull();
+    }
+
+    @Test
+    @DisplayName("If client tokens were revoked then reject tokens issued before revocation")
+    void verify_ifTokensRevoked_thenReturnNull() {
+        //ARRANGE
+        JwtDto tokens = jwtTokenProvider.createTokens(CLIENT_ID);
+        JwtDto otherClientTokens = jwtTokenProvider.createTokens(UUID.randomUUID());
+        //ACT
+        tokenRevocationIndex.revoke(CLIENT_ID, NOW.toEpochMilli() + 1);
+        //VERIFY
+        assertThat(jwtVerifier.verifyAccessToken(tokens.getAccessToken(), 0)).isNull();
+        assertThat(jwtVerifier.verifyRefreshToken(tokens.getRefreshToken())).isNull();
+        assertThat(jwtVerifier.verifyAccessToken(otherClientTokens.getAccessToken(), 0)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("If tokens were issued later within the second of revocation then accept them")
+    void verify_ifTokensIssuedAfterRevocationInSameSecond_thenReturnClientId() {
+        //ARRANGE
+        Instant reissuedAt = NOW.plusMillis(500);
+        JwtDto tokens = new JwtTokenProvider(Clock.fixed(reissuedAt, ZoneOffset.UTC)).createTokens(CLIENT_ID);
+        //ACT
+        tokenRevocationIndex.revoke(CLIENT_ID, NOW.plusMillis(200).toEpochMilli());
+        //VERIFY
+        assertThat(jwtVerifier.verifyAccessToken(tokens.getAccessToken(), 0)).isEqualTo(CLIENT_ID);
+        assertThat(jwtVerifier.verifyRefreshToken(tokens.getRefreshToken())).isEqualTo(CLIENT_ID);
+    }
+}
@@ -0,0 +1,104 @@
+package by.afinny.userservice.unit.security;
+
+import by.afinny.userservice.config.security.properties.LoginThrottleProperties;
+import by.afinny.userservice.exception.LoginThrottledException;
+import by.afinny.userservice.security.LoginAttemptThrottle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginAttemptThrottleTest {
+
+    private final String LOGIN = "PHONE_NUMBER:79142790201";
+    private final String ADDRESS = "10.0.0.1";
+
+    private MutableClock clock;
+    private LoginAttemptThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setMaxFailuresPerLogin(3);
+        properties.setMaxFailuresPerAddress(5);
+        properties.setWindow(Duration.ofMinutes(1));
+        clock = new MutableClock();
+        throttle = new LoginAttemptThrottle(properties, new SimpleMeterRegistry(), clock);
+    }
+
+    @Test
+    @DisplayName("If failures per login exceed the limit then reject until the window slides")
+    void checkAllowed_ifLoginLimitExceeded_thenThrowUntilWindowPasses() {
+        //ARRANGE
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure(LOGIN, ADDRESS);
+        }
+        //ACT
+        ThrowingCallable checkMethod = () -> throttle.checkAllowed(LOGIN, ADDRESS);
+        //VERIFY
+        assertThatThrownBy(checkMethod)
+                .isInstanceOf(LoginThrottledException.class)
+                .hasFieldOrPropertyWithValue("retryAfterSeconds", 60L);
+        clock.now = clock.now.plus(Duration.ofMinutes(1));
+        assertThatCode(checkMethod).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("If failures from one address exceed the limit then reject any login from it")
+    void checkAllowed_ifAddressLimitExceeded_thenThrow() {
+        //ARRANGE
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("PASSPORT_NUMBER:" + i, ADDRESS);
+        }
+        //ACT & VERIFY
+        assertThatThrownBy(() -> throttle.checkAllowed(LOGIN, ADDRESS))
+                .isInstanceOf(LoginThrottledException.class);
+        assertThatCode(() -> throttle.checkAllowed(LOGIN, "10.0.0.2")).doesNotThrowAnyException();
+        assertThat(throttle.blockedKeys(10)).containsExactly("address:" + ADDRESS);
+    }
+
+    @Test
+    @DisplayName("If login succeeded then forget its failures")
+    void recordSuccess_shouldResetLoginFailures() {
+        //ARRANGE
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure(LOGIN, null);
+        }
+        //ACT
+        throttle.recordSuccess(LOGIN);
+        //VERIFY
+        assertThatCode(() -> throttle.checkAllowed(LOGIN, null)).doesNotThrowAnyException();
+        assertThat(throttle.trackedKeys()).isZero();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-10-18T10:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
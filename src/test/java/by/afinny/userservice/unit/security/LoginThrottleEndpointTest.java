@@ -0,0 +1,33 @@
+package by.afinny.userservice.unit.security;
+
+import by.afinny.userservice.config.security.properties.LoginThrottleProperties;
+import by.afinny.userservice.security.LoginAttemptThrottle;
+import by.afinny.userservice.security.LoginThrottleEndpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleEndpointTest {
+
+    @Test
+    @DisplayName("If logins and addresses are blocked then show them masked")
+    void state_shouldMaskBlockedKeys() {
+        //ARRANGE
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setMaxFailuresPerLogin(1);
+        properties.setMaxFailuresPerAddress(1);
+        LoginAttemptThrottle throttle = new LoginAttemptThrottle(properties, new SimpleMeterRegistry());
+        throttle.recordFailure("PHONE_NUMBER:79142790201", "10.0.0.1");
+        LoginThrottleEndpoint endpoint = new LoginThrottleEndpoint(throttle);
+        //ACT
+        Map<String, Object> state = endpoint.state();
+        //VERIFY
+        assertThat(state.get("blockedKeys")).asList().containsExactlyInAnyOrder(
+                "login:PHONE_NUMBER:79*******01",
+                "address:10****.1");
+    }
+}
@@ -0,0 +1,49 @@
+package by.afinny.userservice.unit.security;
+
+import by.afinny.userservice.security.TokenRevocationIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationIndexTest {
+
+    private final TokenRevocationIndex tokenRevocationIndex = new TokenRevocationIndex();
+
+    @Test
+    @DisplayName("If many clients revoked then keep the latest not-before of each after growing")
+    void revoke_afterResize_shouldKeepLatestNotBefore() {
+        //ARRANGE
+        UUID[] clientIds = new UUID[3000];
+        for (int i = 0; i < clientIds.length; i++) {
+            clientIds[i] = UUID.randomUUID();
+            tokenRevocationIndex.revoke(clientIds[i], 1000 + i);
+        }
+        //ACT
+        tokenRevocationIndex.revoke(clientIds[0], 500);
+        //VERIFY
+        assertThat(tokenRevocationIndex.size()).isEqualTo(clientIds.length);
+        assertThat(tokenRevocationIndex.isRevoked(clientIds[0], 999)).isTrue();
+        assertThat(tokenRevocationIndex.isRevoked(clientIds[0], 1000)).isFalse();
+        assertThat(tokenRevocationIndex.isRevoked(clientIds[2999], 3998)).isTrue();
+        assertThat(tokenRevocationIndex.isRevoked(UUID.randomUUID(), 0)).isFalse();
+    }
+
+    @Test
+    @DisplayName("If revocations are older than any live token then drop them")
+    void removeOlderThan_shouldDropExpiredRevocations() {
+        //ARRANGE
+        UUID expired = UUID.randomUUID();
+        UUID recent = UUID.randomUUID();
+        tokenRevocationIndex.revoke(expired, 100);
+        tokenRevocationIndex.revoke(recent, 200);
+        //ACT
+        tokenRevocationIndex.removeOlderThan(150);
+        //VERIFY
+        assertThat(tokenRevocationIndex.size()).isEqualTo(1);
+        assertThat(tokenRevocationIndex.isRevoked(expired, 50)).isFalse();
+        assertThat(tokenRevocationIndex.isRevoked(recent, 199)).isTrue();
+    }
+}
@@ -2,9 +2,19 @@ package by.afinny.userservice.unit.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import by.afinny.userservice.config.security.properties.FingerprintIndexProperties;
+import by.afinny.userservice.config.security.properties.LoginProperties;
+import by.afinny.userservice.config.security.properties.LoginThrottleProperties;
+import by.afinny.userservice.config.security.properties.PasswordHashingProperties;
 import by.afinny.userservice.dto.FingerprintDto;
 import by.afinny.userservice.dto.LoginByPinDto;
 import by.afinny.userservice.dto.LoginDto;
@@ -15,17 +25,28 @@ import by.afinny.userservice.entity.Fingerprint;
 import by.afinny.userservice.entity.PassportData;
 import by.afinny.userservice.entity.UserProfile;
 import by.afinny.userservice.exception.BadCredentialsException;
+import by.afinny.userservice.exception.LoginThrottledException;
 import by.afinny.userservice.exception.WrongCredentialsException;
 import by.afinny.userservice.mapper.FingerprintMapper;
 import by.afinny.userservice.mapper.FingerprintMapperImpl;
 import by.afinny.userservice.repository.FingerprintRepository;
 import by.afinny.userservice.repository.UserProfileRepository;
+import by.afinny.userservice.repository.projection.LoginCredentials;
+import by.afinny.userservice.security.BoundedPasswordEncoder;
+import by.afinny.userservice.security.FingerprintIndex;
+import by.afinny.userservice.security.LoginAttemptThrottle;
+import by.afinny.userservice.service.TokenRevocationService;
 import by.afinny.userservice.service.impl.AuthenticationServiceImpl;
 
 import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -42,7 +63,8 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.test.context.ActiveProfiles;
 
 @ExtendWith(MockitoExtension.class)
@@ -57,9 +79,22 @@ class AuthenticationServiceImplTest {
 
     @Mock
     private FingerprintRepository fingerprintRepository;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
 
     @Spy
-    private PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
+    private BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(12), new PasswordHashingProperties(), new SimpleMeterRegistry());
+    @Spy
+    private Executor loginExecutor = new SyncTaskExecutor();
+    @Spy
+    private LoginProperties loginProperties = new LoginProperties();
+    @Spy
+    private FingerprintIndex fingerprintIndex = new FingerprintIndex(
+            new FingerprintIndexProperties(), new SimpleMeterRegistry());
+    @Spy
+    private LoginAttemptThrottle loginAttemptThrottle = new LoginAttemptThrottle(
+            new LoginThrottleProperties(), new SimpleMeterRegistry());
     @Spy
     private FingerprintMapper fingerprintMapper = new FingerprintMapperImpl();
 
@@ -72,6 +107,7 @@ class AuthenticationServiceImplTest {
     private final String NEW_PASSWORD = "fjkdmw098d!1";
     private final String INVALID_PASSWORD = "894ka-31elr_";
     private final String FINGERPRINT =  "FINGERPRINT";
+    private final String CLIENT_ADDRESS = "10.0.0.1";
 
     private UserProfile userProfile;
     private Fingerprint fingerprint;
@@ -129,13 +165,32 @@ class AuthenticationServiceImplTest {
     void getCredentials_ifByMobilePhoneAndValidPassword_thenReturnClientId() {
         //ARRANGE
         wayLoginWithMobilePhone(STORED_PASSWORD);
-        when(userProfileRepository.findByClientMobilePhone(MOBILE_PHONE))
-                .thenReturn(Optional.of(userProfile));
+        when(userProfileRepository.findCredentialsByMobilePhone(MOBILE_PHONE))
+                .thenReturn(Optional.of(toLoginCredentials(userProfile)));
+        //ACT
+        UUID clientId = authenticationService.getCredentials(loginDto);
+        //VERIFY
+        assertThat(clientId).isEqualTo(CLIENT_ID);
+        verify(userProfileRepository).findCredentialsByMobilePhone(MOBILE_PHONE);
+        verify(userProfileRepository, never()).updatePassword(any(UUID.class), anyString());
+    }
+
+    @Test
+    @DisplayName("If stored password has outdated encoding then rehash it after login")
+    void getCredentials_ifOutdatedEncoding_thenRehashPassword() {
+        //ARRANGE
+        wayLoginWithMobilePhone(STORED_PASSWORD);
+        userProfile.setPassword(new BCryptPasswordEncoder(4).encode(STORED_PASSWORD));
+        when(userProfileRepository.findCredentialsByMobilePhone(MOBILE_PHONE))
+                .thenReturn(Optional.of(toLoginCredentials(userProfile)));
+        ArgumentCaptor<String> updatedPassword = ArgumentCaptor.forClass(String.class);
         //ACT
         UUID clientId = authenticationService.getCredentials(loginDto);
         //VERIFY
         assertThat(clientId).isEqualTo(CLIENT_ID);
-        verify(userProfileRepository).findByClientMobilePhone(MOBILE_PHONE);
+        verify(userProfileRepository, timeout(5000)).updatePassword(eq(USER_ID), updatedPassword.capture());
+        assertThat(updatedPassword.getValue()).startsWith("$2a$12$");
+        assertThat(passwordEncoder.matches(STORED_PASSWORD, updatedPassword.getValue())).isTrue();
     }
 
     @Test
@@ -143,13 +198,13 @@ class AuthenticationServiceImplTest {
     void getCredentials_ifByPassportNumberAndValidPassword_thenReturnClientId() {
         //ARRANGE
         wayLoginWithPassportNumber(STORED_PASSWORD);
-        when(userProfileRepository.findByClientPassportDataPassportNumber(PASSPORT_NUMBER))
-                .thenReturn(Optional.of(userProfile));
+        when(userProfileRepository.findCredentialsByPassportNumber(PASSPORT_NUMBER))
+                .thenReturn(Optional.of(toLoginCredentials(userProfile)));
         //ACT
         UUID clientId = authenticationService.getCredentials(loginDto);
         //VERIFY
         assertThat(clientId).isEqualTo(CLIENT_ID);
-        verify(userProfileRepository).findByClientPassportDataPassportNumber(PASSPORT_NUMBER);
+        verify(userProfileRepository).findCredentialsByPassportNumber(PASSPORT_NUMBER);
     }
 
     @Test
@@ -157,8 +212,8 @@ class AuthenticationServiceImplTest {
     void getCredentials_ifByMobilePhoneAndInvalidPassword_thenThrow() {
         //ARRANGE
         wayLoginWithMobilePhone(INVALID_PASSWORD);
-        when(userProfileRepository.findByClientMobilePhone(MOBILE_PHONE))
-                .thenReturn(Optional.of(userProfile));
+        when(userProfileRepository.findCredentialsByMobilePhone(MOBILE_PHONE))
+                .thenReturn(Optional.of(toLoginCredentials(userProfile)));
         //ACT
         ThrowingCallable getCredentialsMethod = () -> authenticationService.getCredentials(loginDto);
         //VERIFY
@@ -171,8 +226,8 @@ class AuthenticationServiceImplTest {
     void getCredentials_ifByPassportNumberAndInvalidPassword_thenThrow() {
         //ARRANGE
         wayLoginWithPassportNumber(INVALID_PASSWORD);
-        when(userProfileRepository.findByClientPassportDataPassportNumber(PASSPORT_NUMBER))
-                .thenReturn(Optional.of(userProfile));
+        when(userProfileRepository.findCredentialsByPassportNumber(PASSPORT_NUMBER))
+                .thenReturn(Optional.of(toLoginCredentials(userProfile)));
         //ACT
         ThrowingCallable getCredentialsMethod = () -> authenticationService.getCredentials(loginDto);
         //VERIFY
@@ -186,7 +241,7 @@ class AuthenticationServiceImplTest {
     void getCredentials_ifMobilePhoneInvalid_thenThrow(String password) {
         //ARRANGE
         wayLoginWithMobilePhone(password);
-        when(userProfileRepository.findByClientMobilePhone(MOBILE_PHONE))
+        when(userProfileRepository.findCredentialsByMobilePhone(MOBILE_PHONE))
                 .thenReturn(Optional.empty());
         //ACT
         ThrowingCallable getCredentialsMethod = () -> authenticationService.getCredentials(loginDto);
@@ -201,7 +256,7 @@ class AuthenticationServiceImplTest {
     void getCredentials_ifPassportNumberInvalid_thenThrow(String password) {
         //ARRANGE
         wayLoginWithPassportNumber(password);
-        when(userProfileRepository.findByClientPassportDataPassportNumber(PASSPORT_NUMBER))
+        when(userProfileRepository.findCredentialsByPassportNumber(PASSPORT_NUMBER))
                 .thenReturn(Optional.empty());
         //ACT
         ThrowingCallable getCredentialsMethod = () -> authenticationService.getCredentials(loginDto);
@@ -210,6 +265,54 @@ class AuthenticationServiceImplTest {
                 .isInstanceOf(WrongCredentialsException.class);
     }
 
+    @Test
+    @DisplayName("If login asynchronously by mobile phone then complete with client id")
+    void getCredentialsAsync_ifByMobilePhoneAndValidPassword_thenReturnClientId() {
+        //ARRANGE
+        wayLoginWithMobilePhone(STORED_PASSWORD);
+        when(userProfileRepository.findCredentialsByMobilePhone(MOBILE_PHONE))
+                .thenReturn(Optional.of(toLoginCredentials(userProfile)));
+        //ACT
+        CompletableFuture<UUID> clientId = authenticationService.getCredentialsAsync(loginDto, CLIENT_ADDRESS);
+        //VERIFY
+        assertThat(clientId.join()).isEqualTo(CLIENT_ID);
+    }
+
+    @Test
+    @DisplayName("If login asynchronously with invalid password then complete exceptionally")
+    void getCredentialsAsync_ifInvalidPassword_thenCompleteExceptionally() {
+        //ARRANGE
+        wayLoginWithPassportNumber(INVALID_PASSWORD);
+        when(userProfileRepository.findCredentialsByPassportNumber(PASSPORT_NUMBER))
+                .thenReturn(Optional.of(toLoginCredentials(userProfile)));
+        //ACT
+        CompletableFuture<UUID> clientId = authenticationService.getCredentialsAsync(loginDto, CLIENT_ADDRESS);
+        //VERIFY
+        assertThatThrownBy(clientId::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(WrongCredentialsException.class);
+    }
+
+    @Test
+    @DisplayName("If too many failed logins then reject without password verification")
+    void getCredentialsAsync_ifTooManyFailures_thenRejectBeforePasswordCheck() {
+        //ARRANGE
+        wayLoginWithPassportNumber(INVALID_PASSWORD);
+        when(userProfileRepository.findCredentialsByPassportNumber(PASSPORT_NUMBER))
+                .thenReturn(Optional.of(toLoginCredentials(userProfile)));
+        int maxFailures = new LoginThrottleProperties().getMaxFailuresPerLogin();
+        for (int i = 0; i < maxFailures; i++) {
+            authenticationService.getCredentialsAsync(loginDto, CLIENT_ADDRESS).exceptionally(e -> null).join();
+        }
+        //ACT
+        CompletableFuture<UUID> clientId = authenticationService.getCredentialsAsync(loginDto, CLIENT_ADDRESS);
+        //VERIFY
+        assertThatThrownBy(clientId::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(LoginThrottledException.class);
+        verify(passwordEncoder, times(maxFailures)).matchesAsync(anyString(), anyString());
+    }
+
     @Test
     @DisplayName("If user found then reset password")
     void resetPasswordByMobilePhone_shouldNotReturnContent() {
@@ -221,6 +324,7 @@ class AuthenticationServiceImplTest {
         authenticationService.resetPasswordByMobilePhone(MOBILE_PHONE, NEW_PASSWORD);
         //VERIFY
         assertThat(passwordEncoder.matches(NEW_PASSWORD, savedUserProfile.getValue().getPassword())).isTrue();
+        verify(tokenRevocationService).revokeTokens(CLIENT_ID);
     }
 
     @Test
@@ -246,6 +350,7 @@ class AuthenticationServiceImplTest {
         authenticationService.resetPasswordByUserProfile(userProfile, NEW_PASSWORD);
         //VERIFY
         assertThat(passwordEncoder.matches(NEW_PASSWORD, savedUserProfile.getValue().getPassword())).isTrue();
+        verify(tokenRevocationService).revokeTokens(CLIENT_ID);
     }
 
     @Test
@@ -261,6 +366,32 @@ class AuthenticationServiceImplTest {
 
     }
 
+    @Test
+    @DisplayName("If fingerprint was already verified then return user id without database lookup")
+    void getCredentialsByPin_ifFingerprintIndexed_thenSkipRepository() {
+        //ARRANGE
+        when(fingerprintRepository.findByClientIdAndFingerprint(CLIENT_ID, FINGERPRINT))
+                .thenReturn(Optional.of(fingerprint));
+        authenticationService.checkFingerprintForLoginById(loginByPinDto);
+        //ACT
+        UUID userId = authenticationService.checkFingerprintForLoginById(loginByPinDto);
+        //VERIFY
+        assertThat(userId).isEqualTo(CLIENT_ID);
+        verify(fingerprintRepository, times(1)).findByClientIdAndFingerprint(CLIENT_ID, FINGERPRINT);
+    }
+
+    @Test
+    @DisplayName("If correct data then complete asynchronously with user id")
+    void getCredentialsByPinAsync_shouldReturnUserId() {
+        //ARRANGE
+        when(fingerprintRepository.findByClientIdAndFingerprint(CLIENT_ID, FINGERPRINT))
+                .thenReturn(Optional.of(fingerprint));
+        //ACT
+        CompletableFuture<UUID> userId = authenticationService.checkFingerprintForLoginByIdAsync(loginByPinDto);
+        //VERIFY
+        assertThat(userId.join()).isEqualTo(CLIENT_ID);
+    }
+
     @Test
     @DisplayName("If fingerprint not found then throw")
     void getCredentialsByPin_ifFingerprintNotFound_thenThrow() {
@@ -289,6 +420,14 @@ class AuthenticationServiceImplTest {
                 .password(password).build();
     }
 
+    private LoginCredentials toLoginCredentials(UserProfile userProfile) {
+        return new SpelAwareProxyProjectionFactory().createProjection(LoginCredentials.class, Map.of(
+                "clientId", userProfile.getClient().getId(),
+                "userProfileId", userProfile.getId(),
+                "password", userProfile.getPassword(),
+                "clientStatus", userProfile.getClient().getClientStatus()));
+    }
+
     private Answer<Object> passedArgument() {
         return invocationOnMock -> invocationOnMock.getArgument(0);
     }
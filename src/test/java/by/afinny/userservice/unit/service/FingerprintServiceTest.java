@@ -1,11 +1,14 @@
 package by.afinny.userservice.unit.service;
 
+import by.afinny.userservice.config.security.properties.FingerprintIndexProperties;
 import by.afinny.userservice.dto.FingerprintDto;
 import by.afinny.userservice.entity.Fingerprint;
 import by.afinny.userservice.mapper.FingerprintMapper;
 import by.afinny.userservice.mapper.FingerprintMapperImpl;
 import by.afinny.userservice.repository.FingerprintRepository;
+import by.afinny.userservice.security.FingerprintIndex;
 import by.afinny.userservice.service.impl.FingerprintServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,6 +23,7 @@ import org.springframework.test.context.ActiveProfiles;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -38,6 +42,9 @@ class FingerprintServiceTest {
 
     @Spy
     private FingerprintMapper fingerprintMapper = new FingerprintMapperImpl();
+    @Spy
+    private FingerprintIndex fingerprintIndex = new FingerprintIndex(
+            new FingerprintIndexProperties(), new SimpleMeterRegistry());
 
     private final String FINGERPRINT =  "FINGERPRINT";
 
@@ -64,6 +71,19 @@ class FingerprintServiceTest {
         fingerprintService.createFingerprint(fingerprintDto);
         //VERIFY
         verify(fingerprintRepository, times(1)).save(any(Fingerprint.class));
+        assertThat(fingerprintIndex.contains(fingerprintDto.getClientId(), FINGERPRINT)).isTrue();
+    }
+
+    @Test
+    @DisplayName("if fingerprint already indexed then don't query repository")
+    void createFingerprint_ifFingerprintIndexed_thenSkipRepository() {
+        //ARRANGE
+        fingerprintIndex.put(fingerprintDto.getClientId(), FINGERPRINT);
+        //ACT
+        fingerprintService.createFingerprint(fingerprintDto);
+        //VERIFY
+        verify(fingerprintRepository, never()).findByClientIdAndFingerprint(any(), any());
+        verify(fingerprintRepository, never()).save(any(Fingerprint.class));
     }
 
     @Test
@@ -0,0 +1,378 @@
+package by.afinny.userservice.unit.service;
+
+import by.afinny.userservice.config.product.properties.ProductStatusProperties;
+import by.afinny.userservice.dto.kafka.ProductEvent;
+import by.afinny.userservice.dto.kafka.ProductEventType;
+import by.afinny.userservice.entity.ClientProductCounter;
+import by.afinny.userservice.openfeign.ProductLookupGuard;
+import by.afinny.userservice.entity.ClientStatus;
+import by.afinny.userservice.openfeign.credit.CreditClient;
+import by.afinny.userservice.openfeign.deposit.AccountClient;
+import by.afinny.userservice.repository.ClientProductCounterRepository;
+import by.afinny.userservice.repository.ClientRepository;
+import by.afinny.userservice.service.impl.ProductStatusServiceImpl;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductStatusServiceImplTest {
+
+    private static final UUID CLIENT_ID = UUID.randomUUID();
+    private static final UUID PRODUCT_ID = UUID.randomUUID();
+    private static final Set<ClientStatus> PRODUCT_STATUSES = Set.of(ClientStatus.ACTIVE, ClientStatus.NOT_ACTIVE);
+    private static final Duration TIMEOUT = Duration.ofMillis(500);
+    private static final Duration CALL_TIMEOUT = Duration.ofMillis(200);
+    private static final int MINIMUM_NUMBER_OF_CALLS = 2;
+
+    @Mock
+    private ClientProductCounterRepository clientProductCounterRepository;
+    @Mock
+    private ClientRepository clientRepository;
+    @Mock
+    private CreditClient creditClient;
+    @Mock
+    private AccountClient accountClient;
+
+    private ThreadPoolTaskExecutor executor;
+    private ScheduledExecutorService timeoutScheduler;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductStatusServiceImpl productStatusService;
+    private final CountDownLatch hanging = new CountDownLatch(1);
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ProductStatusProperties properties = new ProductStatusProperties();
+        properties.setTimeout(TIMEOUT);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+        productStatusService = new ProductStatusServiceImpl(clientProductCounterRepository, clientRepository,
+                creditClient, accountClient, createLookupGuard("credit"), createLookupGuard("deposit"), executor,
+                properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        timeoutScheduler.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @MethodSource("generateProducts")
+    @DisplayName("If lookups return products then define client status by them")
+    void defineClientStatus_shouldDependOnProducts(boolean hasCredits, boolean hasAccounts,
+                                                   ClientStatus expectedClientStatus) {
+        //ARRANGE
+        lenient().when(creditClient.hasActiveCredits(CLIENT_ID)).thenReturn(hasCredits);
+        lenient().when(accountClient.hasActiveAccounts(CLIENT_ID)).thenReturn(hasAccounts);
+        //ACT
+        ClientStatus clientStatus = productStatusService.defineClientStatus(CLIENT_ID);
+        //VERIFY
+        assertThat(clientStatus).isEqualTo(expectedClientStatus);
+    }
+
+    private static Stream<Arguments> generateProducts() {
+        return Stream.of(Arguments.of(false, false, ClientStatus.NOT_ACTIVE),
+                Arguments.of(true, false, ClientStatus.ACTIVE),
+                Arguments.of(false, true, ClientStatus.ACTIVE),
+                Arguments.of(true, true, ClientStatus.ACTIVE));
+    }
+
+    @Test
+    @DisplayName("If one lookup finds products then don't wait for the other and cancel it")
+    void defineClientStatus_ifCreditsFound_thenCancelAccountsLookup() throws InterruptedException {
+        //ARRANGE
+        when(creditClient.hasActiveCredits(CLIENT_ID)).thenAnswer(invocation -> {
+            hanging.await();
+            return true;
+        });
+        when(accountClient.hasActiveAccounts(CLIENT_ID)).thenAnswer(invocation -> hang());
+        //ACT
+        long started = System.nanoTime();
+        ClientStatus clientStatus = productStatusService.defineClientStatus(CLIENT_ID);
+        //VERIFY
+        assertThat(clientStatus).isEqualTo(ClientStatus.ACTIVE);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(TIMEOUT);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("If a lookup doesn't finish in time and the other finds nothing then client is provisionally not active")
+    void defineClientStatus_ifLookupTimedOut_thenProvisionallyNotActive() {
+        //ARRANGE
+        when(creditClient.hasActiveCredits(CLIENT_ID)).thenReturn(false);
+        when(accountClient.hasActiveAccounts(CLIENT_ID)).thenAnswer(invocation -> hang());
+        //ACT
+        long started = System.nanoTime();
+        ClientStatus clientStatus = productStatusService.defineClientStatus(CLIENT_ID);
+        //VERIFY
+        assertThat(clientStatus).isEqualTo(ClientStatus.NOT_ACTIVE);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(TIMEOUT);
+        assertThat(fallbackCount("provisional")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("If a lookup times out then interrupt its call without waiting for the other lookup")
+    void defineClientStatus_ifLookupTimedOut_thenInterruptItsCall() {
+        //ARRANGE
+        ProductStatusProperties properties = new ProductStatusProperties();
+        properties.setTimeout(TIMEOUT);
+        productStatusService = new ProductStatusServiceImpl(clientProductCounterRepository, clientRepository,
+                creditClient, accountClient, createLookupGuard("credit"), createLookupGuard("deposit", TIMEOUT),
+                executor, properties, meterRegistry);
+        when(creditClient.hasActiveCredits(CLIENT_ID)).thenAnswer(invocation -> hang());
+        when(accountClient.hasActiveAccounts(CLIENT_ID)).thenAnswer(invocation -> {
+            interrupted.await(1, TimeUnit.SECONDS);
+            return false;
+        });
+        //ACT
+        long started = System.nanoTime();
+        ClientStatus clientStatus = productStatusService.defineClientStatus(CLIENT_ID);
+        //VERIFY
+        assertThat(clientStatus).isEqualTo(ClientStatus.NOT_ACTIVE);
+        assertThat(interrupted.getCount()).isZero();
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("If a provisional client's products are looked up again then correct its status")
+    void reconcileProvisionalStatuses_ifLookupsSucceed_thenCorrectStatus() {
+        //ARRANGE
+        when(creditClient.hasActiveCredits(CLIENT_ID))
+                .thenThrow(new IllegalStateException("CREDIT is unavailable"))
+                .thenReturn(true);
+        lenient().when(accountClient.hasActiveAccounts(CLIENT_ID)).thenReturn(false);
+        when(clientRepository.updateClientStatus(CLIENT_ID, ClientStatus.ACTIVE, PRODUCT_STATUSES)).thenReturn(1);
+        productStatusService.defineClientStatus(CLIENT_ID);
+        //ACT
+        productStatusService.reconcileProvisionalStatuses();
+        verify(creditClient, times(1)).hasActiveCredits(CLIENT_ID);
+        productStatusService.reconcileProvisionalStatuses();
+        productStatusService.reconcileProvisionalStatuses();
+        //VERIFY
+        verify(creditClient, times(2)).hasActiveCredits(CLIENT_ID);
+        verify(clientRepository).updateClientStatus(CLIENT_ID, ClientStatus.ACTIVE, PRODUCT_STATUSES);
+        assertThat(meterRegistry.get("product.status.reconciled").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("product.status.provisional").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("If products of a provisional client still can't be looked up then keep it provisional")
+    void reconcileProvisionalStatuses_ifLookupsFail_thenStayProvisional() {
+        //ARRANGE
+        when(creditClient.hasActiveCredits(CLIENT_ID)).thenThrow(new IllegalStateException("CREDIT is unavailable"));
+        when(accountClient.hasActiveAccounts(CLIENT_ID)).thenReturn(false);
+        productStatusService.defineClientStatus(CLIENT_ID);
+        //ACT
+        productStatusService.reconcileProvisionalStatuses();
+        productStatusService.reconcileProvisionalStatuses();
+        //VERIFY
+        verify(creditClient, times(2)).hasActiveCredits(CLIENT_ID);
+        verifyNoInteractions(clientRepository);
+        assertThat(meterRegistry.get("product.status.provisional").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("If a lookup fails and the other finds nothing then fall back to the last known status")
+    void defineClientStatus_ifLookupFailed_thenLastKnownStatus() {
+        //ARRANGE
+        when(creditClient.hasActiveCredits(CLIENT_ID))
+                .thenReturn(true)
+                .thenThrow(new IllegalStateException("CREDIT is unavailable"));
+        lenient().when(accountClient.hasActiveAccounts(CLIENT_ID)).thenReturn(false);
+        //ACT
+        ClientStatus definedStatus = productStatusService.defineClientStatus(CLIENT_ID);
+        ClientStatus fallbackStatus = productStatusService.defineClientStatus(CLIENT_ID);
+        //VERIFY
+        assertThat(definedStatus).isEqualTo(ClientStatus.ACTIVE);
+        assertThat(fallbackStatus).isEqualTo(ClientStatus.ACTIVE);
+        assertThat(fallbackCount("last_known")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("If a client keeps failing then open its circuit and stop calling it")
+    void defineClientStatus_ifClientKeepsFailing_thenOpenCircuit() {
+        //ARRANGE
+        when(creditClient.hasActiveCredits(CLIENT_ID)).thenThrow(new IllegalStateException("CREDIT is unavailable"));
+        when(accountClient.hasActiveAccounts(CLIENT_ID)).thenReturn(false);
+        //ACT
+        for (int call = 0; call <= MINIMUM_NUMBER_OF_CALLS; call++) {
+            assertThat(productStatusService.defineClientStatus(CLIENT_ID)).isEqualTo(ClientStatus.NOT_ACTIVE);
+        }
+        //VERIFY
+        verify(creditClient, times(MINIMUM_NUMBER_OF_CALLS)).hasActiveCredits(CLIENT_ID);
+        verify(accountClient, times(MINIMUM_NUMBER_OF_CALLS + 1)).hasActiveAccounts(CLIENT_ID);
+        assertThat(fallbackCount("provisional")).isEqualTo(MINIMUM_NUMBER_OF_CALLS + 1);
+    }
+
+    @Test
+    @DisplayName("If a lookup fails but the other finds products then client is active")
+    void defineClientStatus_ifLookupFailedButOtherFound_thenActive() {
+        //ARRANGE
+        lenient().when(creditClient.hasActiveCredits(CLIENT_ID)).thenThrow(new IllegalStateException());
+        when(accountClient.hasActiveAccounts(CLIENT_ID)).thenReturn(true);
+        //ACT
+        ClientStatus clientStatus = productStatusService.defineClientStatus(CLIENT_ID);
+        //VERIFY
+        assertThat(clientStatus).isEqualTo(ClientStatus.ACTIVE);
+    }
+
+    @Test
+    @DisplayName("If products of the client are counted then client is active without lookups")
+    void defineClientStatus_ifProductsCounted_thenDontLookUp() {
+        //ARRANGE
+        when(clientProductCounterRepository.findById(CLIENT_ID)).thenReturn(Optional.of(counter(2)));
+        //ACT
+        ClientStatus clientStatus = productStatusService.defineClientStatus(CLIENT_ID);
+        //VERIFY
+        assertThat(clientStatus).isEqualTo(ClientStatus.ACTIVE);
+        verifyNoInteractions(creditClient, accountClient);
+    }
+
+    @Test
+    @DisplayName("If no product of the client is counted any more then look its products up")
+    void defineClientStatus_ifNoProductCounted_thenLookUp() {
+        //ARRANGE
+        when(clientProductCounterRepository.findById(CLIENT_ID)).thenReturn(Optional.of(counter(0)));
+        lenient().when(creditClient.hasActiveCredits(CLIENT_ID)).thenReturn(true);
+        lenient().when(accountClient.hasActiveAccounts(CLIENT_ID)).thenReturn(false);
+        //ACT
+        ClientStatus clientStatus = productStatusService.defineClientStatus(CLIENT_ID);
+        //VERIFY
+        assertThat(clientStatus).isEqualTo(ClientStatus.ACTIVE);
+        verify(creditClient).hasActiveCredits(CLIENT_ID);
+    }
+
+    @Test
+    @DisplayName("If a product is opened then count it and refresh client status")
+    void applyProductEvent_ifOpened_thenCountAndRefreshStatus() {
+        //ARRANGE
+        when(clientProductCounterRepository.insertActiveProduct(CLIENT_ID, PRODUCT_ID)).thenReturn(1);
+        when(clientProductCounterRepository.findById(CLIENT_ID)).thenReturn(Optional.of(counter(1)));
+        //ACT
+        productStatusService.applyProductEvent(event(ProductEventType.OPENED));
+        //VERIFY
+        verify(clientProductCounterRepository).incrementActiveProducts(CLIENT_ID);
+        verify(clientRepository).updateClientStatus(CLIENT_ID, ClientStatus.ACTIVE, PRODUCT_STATUSES);
+    }
+
+    @Test
+    @DisplayName("If the last counted product is closed then count it out and leave client status to the lookups")
+    void applyProductEvent_ifLastClosed_thenCountOutAndLookUpStatus() {
+        //ARRANGE
+        when(clientProductCounterRepository.closeActiveProduct(CLIENT_ID, PRODUCT_ID)).thenReturn(1);
+        when(clientProductCounterRepository.findById(CLIENT_ID)).thenReturn(Optional.of(counter(0)));
+        lenient().when(creditClient.hasActiveCredits(CLIENT_ID)).thenReturn(true);
+        lenient().when(accountClient.hasActiveAccounts(CLIENT_ID)).thenReturn(false);
+        //ACT
+        productStatusService.applyProductEvent(event(ProductEventType.CLOSED));
+        verify(clientRepository, never()).updateClientStatus(any(), any(), any());
+        productStatusService.reconcileProvisionalStatuses();
+        //VERIFY
+        verify(clientProductCounterRepository).decrementActiveProducts(CLIENT_ID);
+        verify(clientRepository).updateClientStatus(CLIENT_ID, ClientStatus.ACTIVE, PRODUCT_STATUSES);
+    }
+
+    @Test
+    @DisplayName("If a product is closed before its opening is seen then keep it closed and don't count it")
+    void applyProductEvent_ifClosedBeforeOpened_thenNeverCount() {
+        //ARRANGE
+        when(clientProductCounterRepository.closeActiveProduct(CLIENT_ID, PRODUCT_ID)).thenReturn(0);
+        when(clientProductCounterRepository.insertActiveProduct(CLIENT_ID, PRODUCT_ID)).thenReturn(0);
+        //ACT
+        productStatusService.applyProductEvent(event(ProductEventType.CLOSED));
+        productStatusService.applyProductEvent(event(ProductEventType.OPENED));
+        //VERIFY
+        verify(clientProductCounterRepository).insertClosedProduct(CLIENT_ID, PRODUCT_ID);
+        verify(clientProductCounterRepository, never()).decrementActiveProducts(CLIENT_ID);
+        verify(clientProductCounterRepository, never()).incrementActiveProducts(CLIENT_ID);
+        verify(clientRepository, never()).updateClientStatus(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("If an opened product is already counted then don't count it again")
+    void applyProductEvent_ifRedelivered_thenDontCountAgain() {
+        //ARRANGE
+        when(clientProductCounterRepository.insertActiveProduct(CLIENT_ID, PRODUCT_ID)).thenReturn(0);
+        //ACT
+        productStatusService.applyProductEvent(event(ProductEventType.OPENED));
+        //VERIFY
+        verify(clientProductCounterRepository, never()).incrementActiveProducts(CLIENT_ID);
+        verify(clientRepository, never()).updateClientStatus(any(), any(), any());
+    }
+
+    private static ClientProductCounter counter(int activeProducts) {
+        return ClientProductCounter.builder().clientId(CLIENT_ID).activeProducts(activeProducts).build();
+    }
+
+    private static ProductEvent event(ProductEventType type) {
+        return ProductEvent.builder().clientId(CLIENT_ID).productId(PRODUCT_ID).type(type).build();
+    }
+
+    private ProductLookupGuard createLookupGuard(String name) {
+        return createLookupGuard(name, CALL_TIMEOUT);
+    }
+
+    private ProductLookupGuard createLookupGuard(String name, Duration callTimeout) {
+        CircuitBreaker circuitBreaker = CircuitBreaker.of(name, CircuitBreakerConfig.custom()
+                .slidingWindowSize(MINIMUM_NUMBER_OF_CALLS)
+                .minimumNumberOfCalls(MINIMUM_NUMBER_OF_CALLS)
+                .ignoreExceptions(CancellationException.class)
+                .build());
+        TimeLimiter timeLimiter = TimeLimiter.of(TimeLimiterConfig.custom().timeoutDuration(callTimeout).build());
+        return new ProductLookupGuard(name, circuitBreaker, Bulkhead.ofDefaults(name), timeLimiter, timeoutScheduler);
+    }
+
+    private double fallbackCount(String source) {
+        return meterRegistry.get("product.status.fallback").tag("source", source).counter().count();
+    }
+
+    private boolean hang() {
+        hanging.countDown();
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return false;
+    }
+}
@@ -4,8 +4,6 @@ import by.afinny.userservice.dto.ClientDto;
 import by.afinny.userservice.dto.PassportDto;
 import by.afinny.userservice.dto.RequestClientDto;
 import by.afinny.userservice.dto.RequestNonClientDto;
-import by.afinny.userservice.dto.credit.CreditDto;
-import by.afinny.userservice.dto.deposit.AccountDto;
 import by.afinny.userservice.entity.Client;
 import by.afinny.userservice.entity.ClientStatus;
 import by.afinny.userservice.entity.PassportData;
@@ -20,11 +18,10 @@ import by.afinny.userservice.mapper.ResponseRegisterNonClientMapper;
 import by.afinny.userservice.mapper.ResponseRegisterNonClientMapperImpl;
 import by.afinny.userservice.mapper.UserProfileMapper;
 import by.afinny.userservice.mapper.UserProfileMapperImpl;
-import by.afinny.userservice.openfeign.credit.CreditClient;
-import by.afinny.userservice.openfeign.deposit.AccountClient;
 import by.afinny.userservice.repository.ClientRepository;
 import by.afinny.userservice.repository.PassportDataRepository;
 import by.afinny.userservice.repository.UserProfileRepository;
+import by.afinny.userservice.service.ProductStatusService;
 import by.afinny.userservice.service.impl.RegistrationServiceImpl;
 import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.jupiter.api.Assertions;
@@ -35,8 +32,7 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.Arguments;
-import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
@@ -44,7 +40,6 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
@@ -52,10 +47,8 @@ import org.springframework.test.context.ActiveProfiles;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Date;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -77,9 +70,7 @@ class RegistrationServiceImplTest {
     @Mock
     private UserProfileRepository userProfileRepository;
     @Mock
-    private CreditClient creditClient;
-    @Mock
-    private AccountClient accountClient;
+    private ProductStatusService productStatusService;
     @Spy
     private PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
     @Spy
@@ -201,15 +192,12 @@ class RegistrationServiceImplTest {
     }
 
     @ParameterizedTest
-    @MethodSource("generateProducts")
+    @EnumSource(value = ClientStatus.class, names = {"ACTIVE", "NOT_ACTIVE"})
     @DisplayName("Verify defining client status related on active products and set fields")
-    void registerExistingClient_ifClientHasBankingProducts_thenStatusActive(List<CreditDto> credits,
-                                                                            List<AccountDto> accounts,
-                                                                            ClientStatus expectedClientStatus) {
+    void registerExistingClient_ifClientHasBankingProducts_thenStatusActive(ClientStatus expectedClientStatus) {
         //ARRANGE
         when(clientRepository.findClientById(CLIENT_ID)).thenReturn(Optional.of(client));
-        when(creditClient.getActiveCredits(CLIENT_ID)).thenReturn(ResponseEntity.ok(credits));
-        when(accountClient.getActiveAccounts(CLIENT_ID)).thenReturn(ResponseEntity.ok(accounts));
+        when(productStatusService.defineClientStatus(CLIENT_ID)).thenReturn(expectedClientStatus);
         when(userProfileRepository.save(savedUserProfile.capture())).thenAnswer(passedArgument());
         when(passwordEncoder.encode(CLIENT_PASSWORD)).thenReturn(userProfile.getPassword());
         when(passwordEncoder.matches(CLIENT_PASSWORD, userProfile.getPassword())).thenReturn(true);
@@ -222,13 +210,6 @@ class RegistrationServiceImplTest {
         verifyUserProfileFields(savedUserProfile.getValue());
     }
 
-    private static Stream<Arguments> generateProducts() {
-        return Stream.of(Arguments.of(List.of(), List.of(), ClientStatus.NOT_ACTIVE),
-                Arguments.of(List.of(new CreditDto()), List.of(), ClientStatus.ACTIVE),
-                Arguments.of(List.of(), List.of(new AccountDto()), ClientStatus.ACTIVE),
-                Arguments.of(List.of(new CreditDto()), List.of(new AccountDto()), ClientStatus.ACTIVE));
-    }
-
     @Test
     @DisplayName("If user profile was found then throw Registration Exception")
     void registerExistingClient_ifClientNotFound_thenThrow() {
@@ -0,0 +1,81 @@
+package by.afinny.userservice.unit.service;
+
+import by.afinny.userservice.exception.SmsSendingRejectedException;
+import by.afinny.userservice.service.impl.SenderServiceImpl;
+import by.afinny.userservice.sms.SmsDispatcher;
+import by.afinny.userservice.sms.SmsMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SenderServiceImplTest {
+
+    private static final String MOBILE_PHONE = "79023455502";
+
+    @InjectMocks
+    private SenderServiceImpl senderService;
+    @Mock
+    private SmsDispatcher smsDispatcher;
+    @Captor
+    private ArgumentCaptor<SmsMessage> smsMessageCaptor;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("If there is no transaction then dispatch message immediately")
+    void sendMessageToMobilePhone_withoutTransaction_shouldDispatch() {
+        //ARRANGE
+        when(smsDispatcher.dispatch(any())).thenReturn(true);
+        //ACT
+        senderService.sendMessageToMobilePhone(MOBILE_PHONE, "code");
+        //VERIFY
+        verify(smsDispatcher).dispatch(smsMessageCaptor.capture());
+        assertThat(smsMessageCaptor.getValue().getMobilePhone()).isEqualTo(MOBILE_PHONE);
+    }
+
+    @Test
+    @DisplayName("If dispatcher rejects message without transaction then throw exception")
+    void sendMessageToMobilePhone_ifDispatchRejected_thenThrowSmsSendingRejectedException() {
+        //ARRANGE
+        when(smsDispatcher.dispatch(any())).thenReturn(false);
+        //ACT
+        ThrowingCallable sendMethod = () -> senderService.sendMessageToMobilePhone(MOBILE_PHONE, "code");
+        //VERIFY
+        assertThatThrownBy(sendMethod).isInstanceOf(SmsSendingRejectedException.class);
+    }
+
+    @Test
+    @DisplayName("If transaction is active then dispatch message only after commit")
+    void sendMessageToMobilePhone_inTransaction_shouldDispatchAfterCommit() {
+        //ARRANGE
+        TransactionSynchronizationManager.initSynchronization();
+        //ACT
+        senderService.sendMessageToMobilePhone(MOBILE_PHONE, "code");
+        //VERIFY
+        verify(smsDispatcher, never()).dispatch(any());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(smsDispatcher).dispatch(any());
+    }
+}
@@ -0,0 +1,93 @@
+package by.afinny.userservice.unit.service;
+
+import by.afinny.userservice.config.security.properties.TokenRevocationProperties;
+import by.afinny.userservice.dto.kafka.TokenRevocationEvent;
+import by.afinny.userservice.entity.TokenRevocation;
+import by.afinny.userservice.repository.TokenRevocationRepository;
+import by.afinny.userservice.security.TokenRevocationIndex;
+import by.afinny.userservice.service.impl.TokenRevocationServiceImpl;
+import by.afinny.userservice.util.constant.JWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_METHOD)
+class TokenRevocationServiceImplTest {
+
+    private final UUID CLIENT_ID = UUID.fromString("4acf5c23-d7aa-4924-974d-a7284c289317");
+    private final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    private TokenRevocationServiceImpl tokenRevocationService;
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    private TokenRevocationIndex tokenRevocationIndex;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationIndex = new TokenRevocationIndex();
+        tokenRevocationService = new TokenRevocationServiceImpl(tokenRevocationRepository, tokenRevocationIndex,
+                new TokenRevocationProperties(), eventPublisher, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("If tokens revoked then index, persist and publish revocation")
+    void revokeTokens_shouldIndexPersistAndPublish() {
+        //ACT
+        tokenRevocationService.revokeTokens(CLIENT_ID);
+        //VERIFY
+        ArgumentCaptor<TokenRevocationEvent> event = ArgumentCaptor.forClass(TokenRevocationEvent.class);
+        verify(tokenRevocationRepository).upsertNotBefore(CLIENT_ID, NOW.toEpochMilli() + 1);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getNotBefore()).isEqualTo(NOW.toEpochMilli() + 1);
+        assertThat(tokenRevocationIndex.isRevoked(CLIENT_ID, NOW.toEpochMilli())).isTrue();
+        assertThat(tokenRevocationIndex.isRevoked(CLIENT_ID, NOW.toEpochMilli() + 1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("If revocations stored by other instances then load them into index")
+    void reloadRevocations_shouldLoadStoredRevocations() {
+        //ARRANGE
+        when(tokenRevocationRepository.findByNotBeforeGreaterThanEqual(anyLong()))
+                .thenReturn(List.of(new TokenRevocation(CLIENT_ID, NOW.toEpochMilli())));
+        //ACT
+        tokenRevocationService.reloadRevocations();
+        //VERIFY
+        verify(tokenRevocationRepository).findByNotBeforeGreaterThanEqual(
+                NOW.toEpochMilli() - Long.parseLong(JWT.REFRESH_TOKEN_EXPIRATION.getValue()));
+        assertThat(tokenRevocationIndex.isRevoked(CLIENT_ID, NOW.toEpochMilli() - 10)).isTrue();
+    }
+
+    @Test
+    @DisplayName("If database unavailable then keep serving from index")
+    void reloadRevocations_ifDatabaseUnavailable_thenKeepIndex() {
+        //ARRANGE
+        tokenRevocationIndex.revoke(CLIENT_ID, NOW.toEpochMilli());
+        when(tokenRevocationRepository.findByNotBeforeGreaterThanEqual(anyLong()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        //ACT
+        tokenRevocationService.reloadRevocations();
+        //VERIFY
+        assertThat(tokenRevocationIndex.isRevoked(CLIENT_ID, NOW.toEpochMilli() - 1)).isTrue();
+    }
+}
@@ -2,20 +2,24 @@ package by.afinny.userservice.unit.service;
 
 import by.afinny.userservice.dto.MobilePhoneDto;
 import by.afinny.userservice.dto.PassportDto;
+import by.afinny.userservice.dto.SmsBlockExpirationDto;
 import by.afinny.userservice.dto.VerificationDto;
 import by.afinny.userservice.entity.Client;
 import by.afinny.userservice.entity.PassportData;
-import by.afinny.userservice.entity.SmsBlockSending;
 import by.afinny.userservice.entity.Verification;
 import by.afinny.userservice.exception.BlockedReceiverException;
 import by.afinny.userservice.exception.EntityNotFoundException;
+import by.afinny.userservice.exception.SmsSendingRejectedException;
 import by.afinny.userservice.exception.VerificationCodeException;
 import by.afinny.userservice.mapper.MobilePhoneMapperImpl;
 import by.afinny.userservice.repository.ClientRepository;
-import by.afinny.userservice.repository.SmsBlockSendingRepository;
-import by.afinny.userservice.repository.VerificationRepository;
+import by.afinny.userservice.repository.verification.SmsSendingReservation;
+import by.afinny.userservice.repository.verification.VerificationCheckOutcome;
+import by.afinny.userservice.repository.verification.VerificationCheckResult;
+import by.afinny.userservice.repository.verification.VerificationStore;
 import by.afinny.userservice.service.impl.SenderServiceImpl;
 import by.afinny.userservice.service.impl.VerificationServiceImpl;
+import by.afinny.userservice.statistics.OtpStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -23,6 +27,7 @@ import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestInstance.Lifecycle;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -36,11 +41,13 @@ import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 import static org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -55,19 +62,17 @@ public class VerificationServiceImplTest {
     @Mock
     private SenderServiceImpl senderService;
     @Mock
-    private VerificationRepository verificationRepository;
-    @Mock
-    private SmsBlockSendingRepository smsBlockSendingRepository;
+    private VerificationStore verificationStore;
     @Mock
     private ClientRepository clientRepository;
     @Mock
     private MobilePhoneMapperImpl mobilePhoneMapper;
+    @Mock
+    private OtpStatistics otpStatistics;
 
     @Captor
     private ArgumentCaptor<Verification> verificationCaptor;
     @Captor
-    private ArgumentCaptor<SmsBlockSending> smsBlockSendingCaptor;
-    @Captor
     private ArgumentCaptor<String> messageCaptor;
 
     private final String MOBILE_PHONE = "79023455502";
@@ -78,7 +83,6 @@ public class VerificationServiceImplTest {
     private MobilePhoneDto mobilePhoneDto;
     private PassportDto passportDto;
     private Client client;
-    private SmsBlockSending smsBlockSending;
 
     @BeforeEach
     void setUp() {
@@ -98,125 +102,133 @@ public class VerificationServiceImplTest {
                 .mobilePhone(MOBILE_PHONE)
                 .passportData(PassportData.builder().passportNumber(PASSPORT_NUMBER).build())
                 .build();
-
-        smsBlockSending = SmsBlockSending.builder()
-                .smsBlockExpiration(LocalDateTime.now().minusMinutes(10))
-                .mobilePhone("79729782315")
-                .sendingCount(0)
-                .build();
     }
 
     @Test
     @DisplayName("If verification code has been successfully sent to mobile phone don't return content")
     void sendVerificationCode_byMobilePhone_shouldNotReturnContent() {
         //ARRANGE
-        when(smsBlockSendingRepository.save(smsBlockSendingCaptor.capture())).thenAnswer(passedArgument());
-        when(verificationRepository.save(verificationCaptor.capture())).thenAnswer(passedArgument());
+        when(verificationStore.reserveSmsSending(MOBILE_PHONE)).thenReturn(new SmsSendingReservation(true, 1, 30));
+        when(verificationStore.saveVerification(verificationCaptor.capture())).thenAnswer(passedArgument());
 
         //ACT
-        verificationService.createAndSendVerificationCode(MOBILE_PHONE);
+        SmsBlockExpirationDto smsBlockExpirationDto = verificationService.createAndSendVerificationCode(MOBILE_PHONE);
 
         //VERIFY
         Verification verification = verificationCaptor.getValue();
         verifyVerification(verification);
+        assertThat(smsBlockExpirationDto.getBlockSeconds()).isEqualTo("30");
         verify(senderService).sendMessageToMobilePhone(eq(MOBILE_PHONE), messageCaptor.capture());
         verifySentMessage(verification.getVerificationCode());
     }
 
+    @Test
+    @DisplayName("If code is sent again then replace the unused code and count it")
+    void sendVerificationCode_ifCodeWasSent_thenCountReplacedCode() {
+        //ARRANGE
+        when(verificationStore.reserveSmsSending(MOBILE_PHONE)).thenReturn(new SmsSendingReservation(true, 2, 60));
+        when(verificationStore.findVerification(MOBILE_PHONE)).thenReturn(Optional.of(verification));
+        when(verificationStore.saveVerification(verification)).thenAnswer(passedArgument());
+        //ACT
+        verificationService.createAndSendVerificationCode(MOBILE_PHONE);
+        //VERIFY
+        verify(otpStatistics).recordReplacedUnused();
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {MOBILE_PHONE})
     @DisplayName("If verification code sending failed then throw exception")
     void sendVerificationCode_ifSendingFailed_thenReturnInternalServerError(String receiver) {
         //ARRANGE
-        when(verificationRepository.save(verification)).thenThrow(RuntimeException.class);
+        when(verificationStore.reserveSmsSending(receiver)).thenReturn(new SmsSendingReservation(true, 1, 30));
+        when(verificationStore.saveVerification(verification)).thenThrow(RuntimeException.class);
         //ACT
         ThrowingCallable sendVerificationCodeMethod = () -> verificationService.createAndSendVerificationCode(receiver);
         //VERIFY
         assertThatThrownBy(sendVerificationCodeMethod).isInstanceOf(RuntimeException.class);
     }
 
-    @ParameterizedTest
-    @DisplayName("If verification code is correct and not expired then don't return content")
-    @ValueSource(strings = {MOBILE_PHONE})
-    void checkVerificationCode_ifCodeIsCorrectAndNotExpired_thenNotReturnContent(String receiver) {
+    @Test
+    @DisplayName("If sms can't be dispatched then release reservation and throw exception")
+    void sendVerificationCode_ifDispatchRejected_thenReleaseReservation() {
         //ARRANGE
-        wayCodeNotExpired();
-        when(verificationRepository
-                .findByMobilePhone(eq(receiver)))
-                .thenReturn(Optional.of(verification));
+        SmsSendingReservation reservation = new SmsSendingReservation(true, 2, 60);
+        when(verificationStore.reserveSmsSending(MOBILE_PHONE)).thenReturn(reservation);
+        when(verificationStore.saveVerification(verificationCaptor.capture())).thenAnswer(passedArgument());
+        doThrow(SmsSendingRejectedException.getInstance())
+                .when(senderService).sendMessageToMobilePhone(eq(MOBILE_PHONE), anyString());
         //ACT
-        verificationService.checkVerificationCode(createVerificationDto(receiver));
+        ThrowingCallable sendVerificationCodeMethod = () -> verificationService.createAndSendVerificationCode(MOBILE_PHONE);
         //VERIFY
-        verify(verificationRepository).delete(verification);
+        assertThatThrownBy(sendVerificationCodeMethod).isInstanceOf(SmsSendingRejectedException.class);
+        verify(verificationStore).releaseSmsSending(MOBILE_PHONE, reservation);
+    }
+
+    @Test
+    @DisplayName("If receiver is still blocked for sending then throw exception without sending code")
+    void sendVerificationCode_ifReceiverBlocked_thenThrowBlockedReceiverException() {
+        //ARRANGE
+        when(verificationStore.reserveSmsSending(MOBILE_PHONE)).thenReturn(new SmsSendingReservation(false, 1, 25));
+        //ACT
+        ThrowingCallable sendVerificationCodeMethod = () -> verificationService.createAndSendVerificationCode(MOBILE_PHONE);
+        //VERIFY
+        assertThatThrownBy(sendVerificationCodeMethod)
+                .isInstanceOfSatisfying(BlockedReceiverException.class,
+                        exception -> assertThat(exception.getBlockSeconds()).isEqualTo(25L));
+        verify(verificationStore, never()).saveVerification(verification);
+        verify(senderService, never()).sendMessageToMobilePhone(eq(MOBILE_PHONE), messageCaptor.capture());
     }
 
     @ParameterizedTest
-    @DisplayName("If verification code is correct but wrong attempts counter then throw exception")
+    @DisplayName("If verification code is correct and not expired then don't return content")
     @ValueSource(strings = {MOBILE_PHONE})
-    void checkVerificationCode_ifWrongAttemptsCounter_thenThrow(String receiver) {
+    void checkVerificationCode_ifCodeIsCorrectAndNotExpired_thenNotReturnContent(String receiver) {
         //ARRANGE
-        wayWrongAttemptsCounter();
-        when(verificationRepository
-                .findByMobilePhone(eq(receiver)))
-                .thenReturn(Optional.of(verification));
-
+        wayCheckOutcome(receiver, VerificationCheckOutcome.VALID, 0);
         //ACT
         ThrowingCallable checkVerificationCodeMethod = () -> verificationService
                 .checkVerificationCode(createVerificationDto(receiver));
-
         //VERIFY
-        assertThatThrownBy(checkVerificationCodeMethod)
-                .isInstanceOf(BlockedReceiverException.class);
-        verify(verificationRepository, never()).delete(verification);
-        verify(verificationRepository, atLeastOnce()).save(verification);
+        assertThatCode(checkVerificationCodeMethod).doesNotThrowAnyException();
     }
 
     @ParameterizedTest
-    @DisplayName("If verification code is correct but user blocked then throw exception")
-    @ValueSource(strings = {MOBILE_PHONE})
-    void checkVerificationCode_ifUserBlocked_thenThrow(String receiver) {
+    @DisplayName("If wrong attempts ran out or user blocked then throw exception with block seconds")
+    @EnumSource(value = VerificationCheckOutcome.class, names = {"BLOCKED", "BLOCKED_NOW"})
+    void checkVerificationCode_ifUserBlocked_thenThrow(VerificationCheckOutcome outcome) {
         //ARRANGE
-        wayUserBlocked();
-        when(verificationRepository
-                .findByMobilePhone(eq(receiver)))
-                .thenReturn(Optional.of(verification));
+        wayCheckOutcome(MOBILE_PHONE, outcome, 600);
 
         //ACT
         ThrowingCallable checkVerificationCodeMethod = () -> verificationService
-                .checkVerificationCode(createVerificationDto(receiver));
+                .checkVerificationCode(createVerificationDto(MOBILE_PHONE));
 
         //VERIFY
         assertThatThrownBy(checkVerificationCodeMethod)
-                .isInstanceOf(BlockedReceiverException.class);
-        verify(verificationRepository, never()).delete(verification);
+                .isInstanceOfSatisfying(BlockedReceiverException.class,
+                        exception -> assertThat(exception.getBlockSeconds()).isEqualTo(600L));
     }
 
     @ParameterizedTest
-    @DisplayName("If verification code is correct but expired then throw exception")
-    @ValueSource(strings = {MOBILE_PHONE})
-    void checkVerificationCode_ifCodeExpired_thenThrow(String receiver) {
+    @DisplayName("If verification code is wrong or expired then throw exception")
+    @EnumSource(value = VerificationCheckOutcome.class, names = {"INVALID", "EXPIRED"})
+    void checkVerificationCode_ifCodeInvalidOrExpired_thenThrow(VerificationCheckOutcome outcome) {
         //ARRANGE
-        wayCodeExpired();
-        when(verificationRepository
-                .findByMobilePhone(eq(receiver)))
-                .thenReturn(Optional.of(verification));
+        wayCheckOutcome(MOBILE_PHONE, outcome, 0);
         //ACT
         ThrowingCallable checkVerificationCodeMethod = () -> verificationService
-                .checkVerificationCode(createVerificationDto(receiver));
+                .checkVerificationCode(createVerificationDto(MOBILE_PHONE));
         //VERIFY
         assertThatThrownBy(checkVerificationCodeMethod)
                 .isInstanceOf(VerificationCodeException.class);
-        verify(verificationRepository, never()).delete(verification);
     }
 
     @ParameterizedTest
     @ValueSource(strings = {MOBILE_PHONE})
-    @DisplayName("If verification code is invalid then throw exception")
+    @DisplayName("If no code was sent then throw exception")
     void checkVerificationCode_ifCodeIsInvalid_throwVerificationCodeException(String receiver) {
         //ARRANGE
-        when(verificationRepository
-                .findByMobilePhone(eq(receiver)))
-                .thenReturn(Optional.empty());
+        wayCheckOutcome(receiver, VerificationCheckOutcome.NOT_FOUND, 0);
         //ACT
         ThrowingCallable checkVerificationCodeMethod = () -> verificationService
                 .checkVerificationCode(createVerificationDto(receiver));
@@ -228,7 +240,7 @@ public class VerificationServiceImplTest {
     @DisplayName("If successfully set block then don't return content")
     void setUserBlockTimestamp_shouldNotReturnContent() {
         //ARRANGE
-        when(verificationRepository.findByMobilePhone(MOBILE_PHONE))
+        when(verificationStore.findVerification(MOBILE_PHONE))
                 .thenReturn(Optional.of(verification));
         //ACT
         verificationService.setUserBlockTimestamp(mobilePhoneDto);
@@ -240,7 +252,7 @@ public class VerificationServiceImplTest {
     @DisplayName("If set has been failed then throw exception")
     void setUserBlockTimestamp_ifSettingFailed_thenThrow() {
         //ARRANGE
-        when(verificationRepository.findByMobilePhone(MOBILE_PHONE))
+        when(verificationStore.findVerification(MOBILE_PHONE))
                 .thenReturn(Optional.empty());
         //ACT
         ThrowingCallable setUserBlockTimestampMethod = () -> verificationService.setUserBlockTimestamp(mobilePhoneDto);
@@ -275,20 +287,9 @@ public class VerificationServiceImplTest {
         assertThat(resultMobilePhoneDto.toString()).isEqualTo(mobilePhoneDto.toString());
     }
 
-    private void wayCodeExpired() {
-        verification.setCodeExpiration(LocalDateTime.now().minusMinutes(10));
-    }
-
-    private void wayWrongAttemptsCounter() {
-        verification.setWrongAttemptsCounter(3);
-    }
-
-    private void wayUserBlocked() {
-        verification.setUserBlockExpiration(LocalDateTime.now().plusMinutes(10));
-    }
-
-    private void wayCodeNotExpired() {
-        verification.setCodeExpiration(LocalDateTime.now().plusMinutes(10));
+    private void wayCheckOutcome(String receiver, VerificationCheckOutcome outcome, long blockSeconds) {
+        when(verificationStore.checkVerification(receiver, VERIFICATION_CODE))
+                .thenReturn(new VerificationCheckResult(outcome, blockSeconds));
     }
 
     private VerificationDto createVerificationDto(String receiver) {
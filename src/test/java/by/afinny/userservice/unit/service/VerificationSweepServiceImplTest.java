@@ -0,0 +1,92 @@
+package by.afinny.userservice.unit.service;
+
+import by.afinny.userservice.config.verification.properties.OtpStatisticsProperties;
+import by.afinny.userservice.config.verification.properties.VerificationStoreProperties;
+import by.afinny.userservice.config.verification.properties.VerificationSweeperProperties;
+import by.afinny.userservice.repository.verification.SweepResult;
+import by.afinny.userservice.repository.verification.VerificationSweepRepository;
+import by.afinny.userservice.service.impl.VerificationSweepServiceImpl;
+import by.afinny.userservice.statistics.OtpStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerificationSweepServiceImplTest {
+
+    private static final long RETENTION_SECONDS = 3600;
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_BATCHES = 10;
+
+    @Mock
+    private VerificationSweepRepository verificationSweepRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerificationSweepServiceImpl verificationSweepService;
+
+    @BeforeEach
+    void setUp() {
+        VerificationStoreProperties storeProperties = new VerificationStoreProperties();
+        storeProperties.setRetention(Duration.ofSeconds(RETENTION_SECONDS));
+        VerificationSweeperProperties sweeperProperties = new VerificationSweeperProperties();
+        sweeperProperties.setBatchSize(BATCH_SIZE);
+        sweeperProperties.setMaxBatchesPerRun(MAX_BATCHES);
+        meterRegistry = new SimpleMeterRegistry();
+        verificationSweepService = new VerificationSweepServiceImpl(verificationSweepRepository, storeProperties,
+                sweeperProperties, new OtpStatistics(new OtpStatisticsProperties(), meterRegistry), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("If sweeper lock was acquired then report purged rows per table and run time")
+    void sweepExpired_ifLockAcquired_thenCountPurgedRows() {
+        //ARRANGE
+        when(verificationSweepRepository.sweepExpired(RETENTION_SECONDS, BATCH_SIZE, MAX_BATCHES))
+                .thenReturn(Optional.of(new SweepResult(120, 7)));
+        //ACT
+        verificationSweepService.sweepExpired();
+        //VERIFY
+        assertThat(meterRegistry.get("verification.sweeper.purged").tag("table", "verification").counter().count())
+                .isEqualTo(120);
+        assertThat(meterRegistry.get("verification.sweeper.purged").tag("table", "sms_block_sending").counter().count())
+                .isEqualTo(7);
+        assertThat(meterRegistry.get("otp.codes.unused").tag("reason", "expired").functionCounter().count()).isEqualTo(120);
+        assertThat(meterRegistry.get("verification.sweeper.run").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("If another instance holds the sweeper lock then skip the run")
+    void sweepExpired_ifLockHeldElsewhere_thenSkip() {
+        //ARRANGE
+        when(verificationSweepRepository.sweepExpired(RETENTION_SECONDS, BATCH_SIZE, MAX_BATCHES))
+                .thenReturn(Optional.empty());
+        //ACT
+        verificationSweepService.sweepExpired();
+        //VERIFY
+        assertThat(meterRegistry.get("verification.sweeper.skipped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("verification.sweeper.run").timer().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("If database is unavailable then don't propagate the failure to the scheduler")
+    void sweepExpired_ifDatabaseFails_thenSwallowException() {
+        //ARRANGE
+        when(verificationSweepRepository.sweepExpired(RETENTION_SECONDS, BATCH_SIZE, MAX_BATCHES))
+                .thenThrow(new CannotAcquireLockException("timeout"));
+        //ACT
+        verificationSweepService.sweepExpired();
+        //VERIFY
+        assertThat(meterRegistry.get("verification.sweeper.purged").tag("table", "verification").counter().count())
+                .isZero();
+    }
+}
@@ -0,0 +1,153 @@
+package by.afinny.userservice.unit.sms;
+
+import by.afinny.userservice.config.sms.properties.SmsDispatchProperties;
+import by.afinny.userservice.sms.SmsDispatcher;
+import by.afinny.userservice.sms.SmsGateway;
+import by.afinny.userservice.sms.SmsMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmsDispatcherTest {
+
+    private static final String MOBILE_PHONE = "79023455502";
+
+    private SmsDispatchProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private SmsDispatcher smsDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SmsDispatchProperties();
+        properties.setBatchSize(10);
+        properties.setLinger(Duration.ofMillis(200));
+        properties.setInitialBackoff(Duration.ofMillis(10));
+        properties.setMaxBackoff(Duration.ofMillis(20));
+        properties.setMaxAttempts(3);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        smsDispatcher.destroy();
+    }
+
+    @Test
+    @DisplayName("If messages are queued within linger time then send them in one batch")
+    void dispatch_shouldBatchQueuedMessages() throws InterruptedException {
+        //ARRANGE
+        RecordingGateway gateway = new RecordingGateway(0, 5);
+        smsDispatcher = new SmsDispatcher(List.of(gateway), properties, meterRegistry);
+        //ACT
+        for (int i = 0; i < 5; i++) {
+            smsDispatcher.dispatch(new SmsMessage(MOBILE_PHONE, "code " + i));
+        }
+        //VERIFY
+        assertThat(gateway.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(gateway.batchSizes).containsExactly(5);
+    }
+
+    @Test
+    @DisplayName("If gateway failed then retry the batch messages after backoff")
+    void dispatch_ifGatewayFails_thenRetry() throws InterruptedException {
+        //ARRANGE
+        RecordingGateway gateway = new RecordingGateway(1, 1);
+        smsDispatcher = new SmsDispatcher(List.of(gateway), properties, meterRegistry);
+        //ACT
+        smsDispatcher.dispatch(new SmsMessage(MOBILE_PHONE, "code"));
+        //VERIFY
+        assertThat(gateway.sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("sms.dispatch.retried").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("sms.dispatch.failed.batches").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("If gateway queue is full then reject the message")
+    void dispatch_ifQueueFull_thenReject() {
+        //ARRANGE
+        properties.setQueueCapacity(1);
+        properties.setMaxConcurrentBatches(1);
+        properties.setBatchSize(1);
+        properties.setLinger(Duration.ZERO);
+        BlockingGateway gateway = new BlockingGateway();
+        smsDispatcher = new SmsDispatcher(List.of(gateway), properties, meterRegistry);
+        //ACT
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (smsDispatcher.dispatch(new SmsMessage(MOBILE_PHONE, "code " + i))) {
+                accepted++;
+            }
+        }
+        gateway.release.countDown();
+        //VERIFY
+        assertThat(accepted).isBetween(1, 3);
+        assertThat(meterRegistry.get("sms.dispatch.rejected").tag("reason", "queue_full").counter().count())
+                .isEqualTo(20 - accepted);
+    }
+
+    private static class RecordingGateway implements SmsGateway {
+
+        private final AtomicInteger failuresLeft;
+        private final CountDownLatch sent;
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        private RecordingGateway(int failures, int expectedMessages) {
+            this.failuresLeft = new AtomicInteger(failures);
+            this.sent = new CountDownLatch(expectedMessages);
+        }
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public boolean supports(String mobilePhone) {
+            return true;
+        }
+
+        @Override
+        public void send(List<SmsMessage> batch) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("gateway unavailable");
+            }
+            batchSizes.add(batch.size());
+            batch.forEach(message -> sent.countDown());
+        }
+    }
+
+    private static class BlockingGateway implements SmsGateway {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String getName() {
+            return "blocking";
+        }
+
+        @Override
+        public boolean supports(String mobilePhone) {
+            return true;
+        }
+
+        @Override
+        public void send(List<SmsMessage> batch) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package by.afinny.userservice.unit.statistics;
+
+import by.afinny.userservice.config.verification.properties.OtpStatisticsProperties;
+import by.afinny.userservice.repository.verification.SmsSendingReservation;
+import by.afinny.userservice.repository.verification.VerificationCheckOutcome;
+import by.afinny.userservice.statistics.HeavyHitter;
+import by.afinny.userservice.statistics.OtpStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+class OtpStatisticsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OtpStatistics otpStatistics;
+
+    @BeforeEach
+    void setUp() {
+        OtpStatisticsProperties properties = new OtpStatisticsProperties();
+        properties.setPrefixLength(4);
+        properties.setTopPrefixes(1);
+        meterRegistry = new SimpleMeterRegistry();
+        otpStatistics = new OtpStatistics(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("If sendings are reserved then count them by outcome and backoff level")
+    void recordSmsReservation_shouldCountByOutcomeAndLevel() {
+        //ACT
+        otpStatistics.recordSmsReservation("79021111111", new SmsSendingReservation(true, 1, 30));
+        otpStatistics.recordSmsReservation("79021111111", new SmsSendingReservation(false, 1, 20));
+        otpStatistics.recordSmsReservation("79022222222", new SmsSendingReservation(true, 2, 60));
+        otpStatistics.recordSmsReservation("79033333333", new SmsSendingReservation(true, 9, 600));
+        //VERIFY
+        assertSoftly(softly -> {
+            softly.assertThat(count("otp.sms", "outcome", "sent")).isEqualTo(3);
+            softly.assertThat(count("otp.sms", "outcome", "throttled")).isEqualTo(1);
+            softly.assertThat(count("otp.sms.backoff", "level", "1")).isEqualTo(1);
+            softly.assertThat(count("otp.sms.backoff", "level", "2")).isEqualTo(1);
+            softly.assertThat(count("otp.sms.backoff", "level", "6")).isEqualTo(1);
+            softly.assertThat(count("otp.blocks", "reason", "sms_resend")).isEqualTo(1);
+            softly.assertThat(otpStatistics.hottestPrefixes()).extracting(HeavyHitter::getItem).containsExactly("7902");
+            softly.assertThat(otpStatistics.trackedRequests()).isEqualTo(4);
+        });
+    }
+
+    @Test
+    @DisplayName("If codes are checked then count them by outcome and blocks by wrong attempts")
+    void recordCheck_shouldCountByOutcome() {
+        //ACT
+        otpStatistics.recordCheck(VerificationCheckOutcome.INVALID);
+        otpStatistics.recordCheck(VerificationCheckOutcome.INVALID);
+        otpStatistics.recordCheck(VerificationCheckOutcome.BLOCKED_NOW);
+        otpStatistics.recordExpiredUnused(5);
+        otpStatistics.recordReplacedUnused();
+        //VERIFY
+        assertSoftly(softly -> {
+            softly.assertThat(count("otp.checks", "outcome", "invalid")).isEqualTo(2);
+            softly.assertThat(count("otp.checks", "outcome", "valid")).isZero();
+            softly.assertThat(count("otp.blocks", "reason", "wrong_attempts")).isEqualTo(1);
+            softly.assertThat(count("otp.codes.unused", "reason", "expired")).isEqualTo(5);
+            softly.assertThat(otpStatistics.counters()).containsEntry("codes.unused.replaced", 1L);
+        });
+    }
+
+    @Test
+    @DisplayName("If prefixes are reset then keep counters")
+    void resetPrefixes_shouldKeepCounters() {
+        //ARRANGE
+        otpStatistics.recordSmsReservation("79021111111", new SmsSendingReservation(true, 1, 30));
+        //ACT
+        otpStatistics.resetPrefixes();
+        //VERIFY
+        assertThat(otpStatistics.hottestPrefixes()).isEmpty();
+        assertThat(otpStatistics.counters()).containsEntry("sms.sent", 1L);
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).functionCounter().count();
+    }
+}
@@ -0,0 +1,107 @@
+package by.afinny.userservice.unit.statistics;
+
+import by.afinny.userservice.statistics.HeavyHitter;
+import by.afinny.userservice.statistics.SpaceSavingSketch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    @DisplayName("If items fit into capacity then count them exactly, most frequent first")
+    void top_ifItemsFit_thenReturnExactCounts() {
+        //ARRANGE
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        offer(sketch, "7902", 5);
+        offer(sketch, "7903", 2);
+        offer(sketch, "7904", 9);
+        //ACT
+        List<HeavyHitter> top = sketch.top(2);
+        //VERIFY
+        assertSoftly(softly -> {
+            softly.assertThat(top).extracting(HeavyHitter::getItem).containsExactly("7904", "7902");
+            softly.assertThat(top).extracting(HeavyHitter::getCount).containsExactly(9L, 5L);
+            softly.assertThat(top).extracting(HeavyHitter::getError).containsOnly(0L);
+            softly.assertThat(sketch.total()).isEqualTo(16);
+        });
+    }
+
+    @Test
+    @DisplayName("If many distinct items are offered then keep the heavy hitters within the error bound")
+    void offer_ifCapacityExceeded_thenKeepHeavyHitters() {
+        //ARRANGE
+        SpaceSavingSketch sketch = new SpaceSavingSketch(16);
+        //ACT
+        for (int i = 0; i < 1000; i++) {
+            sketch.offer("noise" + i);
+            if (i % 3 == 0) {
+                sketch.offer("hot");
+            }
+            if (i % 5 == 0) {
+                sketch.offer("warm");
+            }
+        }
+        //VERIFY
+        List<HeavyHitter> top = sketch.top(2);
+        assertThat(top).extracting(HeavyHitter::getItem).containsExactly("hot", "warm");
+        assertThat(top.get(0).getCount()).isGreaterThanOrEqualTo(334);
+        assertThat(top.get(0).getCount() - top.get(0).getError()).isLessThanOrEqualTo(334);
+        assertThat(top.get(1).getCount() - top.get(1).getError()).isLessThanOrEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("If items are offered from many threads then merge stripes within the error bound")
+    void top_ifOfferedConcurrently_thenMergeStripes() throws InterruptedException {
+        //ARRANGE
+        SpaceSavingSketch sketch = new SpaceSavingSketch(16, 4);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    sketch.offer("noise" + thread + "-" + i);
+                    if (i % 3 == 0) {
+                        sketch.offer("hot");
+                    }
+                }
+            });
+        }
+        //ACT
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        //VERIFY
+        List<HeavyHitter> top = sketch.top(1);
+        assertThat(top).extracting(HeavyHitter::getItem).containsExactly("hot");
+        assertThat(top.get(0).getCount()).isGreaterThanOrEqualTo(8 * 334);
+        assertThat(top.get(0).getCount() - top.get(0).getError()).isLessThanOrEqualTo(8 * 334);
+        assertThat(sketch.total()).isEqualTo(8 * 1334);
+    }
+
+    @Test
+    @DisplayName("If sketch is cleared then forget tracked items")
+    void clear_shouldForgetItems() {
+        //ARRANGE
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        offer(sketch, "7902", 3);
+        //ACT
+        sketch.clear();
+        //VERIFY
+        assertThat(sketch.top(10)).isEmpty();
+        assertThat(sketch.total()).isZero();
+    }
+
+    private void offer(SpaceSavingSketch sketch, String item, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.offer(item);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package by.afinny.userservice.unit.util;
+
+import by.afinny.userservice.util.VerificationCodeGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerificationCodeGeneratorTest {
+
+    @Test
+    @DisplayName("If codes are generated then each has six digits and all digits occur in every position")
+    void generate_shouldReturnSixDigitCodes() {
+        //ARRANGE
+        boolean[][] seen = new boolean[VerificationCodeGenerator.CODE_LENGTH][10];
+        //ACT
+        for (int i = 0; i < 2000; i++) {
+            String code = VerificationCodeGenerator.generate();
+            //VERIFY
+            assertThat(code).hasSize(VerificationCodeGenerator.CODE_LENGTH).containsOnlyDigits();
+            for (int position = 0; position < code.length(); position++) {
+                seen[position][code.charAt(position) - '0'] = true;
+            }
+        }
+        for (boolean[] digits : seen) {
+            assertThat(digits).containsOnly(true);
+        }
+    }
+
+    @Test
+    @DisplayName("If buffer is passed then write the code into it")
+    void generate_intoBuffer_shouldFillBuffer() {
+        //ARRANGE
+        char[] code = new char[VerificationCodeGenerator.CODE_LENGTH];
+        //ACT
+        VerificationCodeGenerator.generate(code);
+        //VERIFY
+        assertThat(new String(code)).matches("\\d{6}");
+    }
+}
@@ -57,5 +57,25 @@ CREATE TABLE IF NOT EXISTS sms_block_sending
 (
     mobile_phone          varchar(11) PRIMARY KEY,
     sending_count         INTEGER NOT NULL,
-    sms_block_expiration  TIME    NOT NULL
+    sms_block_expiration  TIMESTAMP
     );
+
+
+CREATE TABLE IF NOT EXISTS token_revocation
+(
+    client_id  UUID PRIMARY KEY,
+    not_before BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS client_active_product
+(
+    product_id UUID PRIMARY KEY,
+    client_id  UUID NOT NULL,
+    closed     BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE TABLE IF NOT EXISTS client_product_counter
+(
+    client_id       UUID PRIMARY KEY,
+    active_products INTEGER NOT NULL
+);
\ No newline at end of file
@@ -1,4 +1,5 @@
 TRUNCATE TABLE user_profile CASCADE;
 TRUNCATE TABLE client CASCADE;
 TRUNCATE TABLE verification CASCADE;
-TRUNCATE TABLE passport_data CASCADE;
\ No newline at end of file
+TRUNCATE TABLE passport_data CASCADE;
+TRUNCATE TABLE sms_block_sending CASCADE;
\ No newline at end of file